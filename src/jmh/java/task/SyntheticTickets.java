@@ -0,0 +1,47 @@
+package task;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Synthetic ticket data for benchmarks, generated by {@link TicketDatasetGenerator}.
+ * <p>
+ * Tickets are spread uniformly over {@code routes} routes and {@code carriers} carriers. The generator is
+ * deterministic for a given seed, so every benchmark run sees the same data. Route 0 ({@link #ORIGIN} to
+ * {@link #DESTINATION}) always exists and is the route queried by the benchmarks.
+ * </p>
+ */
+class SyntheticTickets {
+    static final String ORIGIN = TicketDatasetGenerator.originName(0);
+    static final String DESTINATION = TicketDatasetGenerator.destinationName(0);
+
+    /**
+     * Generates a list of tickets.
+     *
+     * @param count the number of tickets
+     * @param routes the number of distinct routes
+     * @param carriers the number of distinct carriers
+     * @return the generated tickets
+     */
+    static List<TicketData> generate(int count, int routes, int carriers) {
+        return generator(routes, carriers).tickets(count).toList();
+    }
+
+    /**
+     * Writes tickets to a JSON file in the format read by {@link TicketJsonReader}, without holding them in memory.
+     *
+     * @param path the file to write
+     * @param count the number of tickets
+     * @param routes the number of distinct routes
+     * @param carriers the number of distinct carriers
+     * @throws IOException if the file cannot be written
+     */
+    static void writeJson(Path path, int count, int routes, int carriers) throws IOException {
+        generator(routes, carriers).write(path.toString(), count);
+    }
+
+    private static TicketDatasetGenerator generator(int routes, int carriers) {
+        return TicketDatasetGenerator.defaults().withRoutesAndCarriers(routes, carriers).withSkew(0);
+    }
+}
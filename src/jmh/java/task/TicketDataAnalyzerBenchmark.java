@@ -0,0 +1,77 @@
+package task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link TicketDataAnalyzer} hot paths over in-memory ticket lists and columnar stores.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar TicketDataAnalyzerBenchmark -prof gc} to also report the
+ * allocation rate. The 10M-ticket inputs need a heap of several gigabytes ({@code -jvmArgs -Xmx8g}).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class TicketDataAnalyzerBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int tickets;
+
+    @Param({"1", "100"})
+    public int routes;
+
+    @Param({"5", "50"})
+    public int carriers;
+
+    private List<TicketData> ticketList;
+    private TicketStore ticketStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ticketList = SyntheticTickets.generate(tickets, routes, carriers);
+        ticketStore = TicketStore.of(ticketList);
+    }
+
+    @Benchmark
+    public Map<String, Duration> calculateMinFlightsTimes() {
+        return TicketDataAnalyzer.calculateMinFlightsTimes(ticketList, SyntheticTickets.ORIGIN, SyntheticTickets.DESTINATION);
+    }
+
+    @Benchmark
+    public double calculateMedianPrice() {
+        return TicketDataAnalyzer.calculateMedianPrice(ticketList, SyntheticTickets.ORIGIN, SyntheticTickets.DESTINATION);
+    }
+
+    @Benchmark
+    public double calculateAverageAndMedianPriceDifference() {
+        return TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(ticketList, SyntheticTickets.ORIGIN, SyntheticTickets.DESTINATION);
+    }
+
+    @Benchmark
+    public Map<String, Duration> calculateMinFlightsTimesStore() {
+        return TicketDataAnalyzer.calculateMinFlightsTimes(ticketStore, SyntheticTickets.ORIGIN, SyntheticTickets.DESTINATION);
+    }
+
+    @Benchmark
+    public double calculateAverageAndMedianPriceDifferenceStore() {
+        return TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(ticketStore, SyntheticTickets.ORIGIN, SyntheticTickets.DESTINATION);
+    }
+}
@@ -0,0 +1,75 @@
+package task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput benchmarks of the ticket readers.
+ * <p>
+ * A synthetic JSON file is written to a temporary directory once per trial. Run with
+ * {@code java -jar target/benchmarks.jar TicketJsonReaderBenchmark -prof gc} to also report the allocation rate.
+ * The 10M-ticket file takes about 3 GB of disk space.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class TicketJsonReaderBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int tickets;
+
+    @Param({"100"})
+    public int routes;
+
+    @Param({"50"})
+    public int carriers;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("tickets-benchmark", ".json");
+        SyntheticTickets.writeJson(file, tickets, routes, carriers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<TicketData> readTickets() {
+        return TicketJsonReader.readTickets(file.toString());
+    }
+
+    @Benchmark
+    public long readTicketsStreaming(Blackhole blackhole) {
+        return TicketJsonReader.readTickets(file.toString(), blackhole::consume);
+    }
+
+    @Benchmark
+    public TicketStore readTicketStoreMapped() {
+        return MappedTicketReader.readTicketStore(file.toString());
+    }
+}
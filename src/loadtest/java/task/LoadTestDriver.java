@@ -0,0 +1,259 @@
+package task;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test of {@link TicketJsonReader} and {@link TicketDataAnalyzer}.
+ * <p>
+ * {@link #run(String, List, int)} reads a ticket file into memory, then answers route queries on a number of
+ * threads, each query computing the minimum flight durations and the price difference of one route as
+ * {@link Main} does. It reports the parse throughput, the query throughput, the query latency percentiles from a
+ * {@link LatencyHistogram} and the peak heap usage of the run. {@link #main(String[])} can first write the file
+ * with a {@link TicketDatasetGenerator} and drives the queries with the same route skew as the generated tickets,
+ * so the hot routes are also the most queried ones.
+ * </p>
+ * <p>
+ * The driver and the generator live in {@code src/loadtest/java}, which is compiled with the tests and with the
+ * {@code benchmarks} profile but not into the application jar; run the driver with
+ * {@code java -cp target/benchmarks.jar task.LoadTestDriver}.
+ * </p>
+ */
+public class LoadTestDriver {
+    private static final String GENERATE_OPTION = "--generate";
+    private static final String ROUTES_OPTION = "--routes";
+    private static final String CARRIERS_OPTION = "--carriers";
+    private static final String SKEW_OPTION = "--skew";
+    private static final String SEED_OPTION = "--seed";
+    private static final String QUERIES_OPTION = "--queries";
+    private static final String THREADS_OPTION = "--threads";
+    private static final String USAGE = "Usage: task.LoadTestDriver [--generate <count>] [--routes <n>]"
+            + " [--carriers <n>] [--skew <exponent>] [--seed <seed>] [--queries <n>] [--threads <n>] [file]";
+    private static final String DEFAULT_FILE = "load-test.ndjson";
+    private static final int DEFAULT_QUERIES = 1_000;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLISECOND = 1e6;
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    /**
+     * Results of one load test run.
+     *
+     * @param tickets the number of tickets read
+     * @param fileBytes the size of the ticket file in bytes
+     * @param parseNanos the time spent reading the tickets in nanoseconds
+     * @param queries the number of route queries answered
+     * @param queryNanos the wall-clock time spent answering all queries in nanoseconds
+     * @param queryLatency the latencies of the individual queries in nanoseconds
+     * @param peakHeapBytes the sum of the peak usages of the heap memory pools during the run
+     */
+    public record Report(long tickets,
+                         long fileBytes,
+                         long parseNanos,
+                         long queries,
+                         long queryNanos,
+                         LatencyHistogram queryLatency,
+                         long peakHeapBytes) {
+        /**
+         * Formats the report as human-readable lines.
+         *
+         * @return the formatted report
+         */
+        public String format() {
+            double parseSeconds = parseNanos / NANOS_PER_SECOND;
+            double querySeconds = queryNanos / NANOS_PER_SECOND;
+            return String.format(Locale.ROOT, "parse: tickets=%d time=%.3f s rate=%.0f tickets/s %.1f MB/s%n",
+                    tickets, parseSeconds, tickets / parseSeconds, fileBytes / BYTES_PER_MEGABYTE / parseSeconds)
+                    + String.format(Locale.ROOT, "query: queries=%d time=%.3f s rate=%.1f queries/s"
+                            + " p50=%.3f ms p90=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                    queries, querySeconds, queries / querySeconds,
+                    queryLatency.getValueAtPercentile(50) / NANOS_PER_MILLISECOND,
+                    queryLatency.getValueAtPercentile(90) / NANOS_PER_MILLISECOND,
+                    queryLatency.getValueAtPercentile(99) / NANOS_PER_MILLISECOND,
+                    queryLatency.getMax() / NANOS_PER_MILLISECOND)
+                    + String.format(Locale.ROOT, "heap: peak=%.1f MB%n", peakHeapBytes / BYTES_PER_MEGABYTE);
+        }
+    }
+
+    /**
+     * Runs the load test on a ticket file.
+     *
+     * @param filepath the path to the JSON or NDJSON file, optionally gzip-compressed
+     * @param queries the routes to query, in order; each route is queried once per occurrence
+     * @param threads the number of threads answering the queries
+     * @return the results of the run, or {@code null} if the tickets could not be read
+     * @throws IllegalArgumentException if the number of threads is not positive
+     * @throws IllegalStateException if a query fails, with the failure of the first worker as the cause and those of
+     *                               the other workers as suppressed exceptions, or if the calling thread is
+     *                               interrupted while waiting for the workers
+     */
+    public static Report run(String filepath, List<RouteKey> queries, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        long parseStart = System.nanoTime();
+        List<TicketData> tickets = TicketJsonReader.readTickets(filepath);
+        long parseNanos = System.nanoTime() - parseStart;
+        if (tickets == null) {
+            return null;
+        }
+        long fileBytes;
+        try {
+            fileBytes = Files.size(Path.of(filepath));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicInteger next = new AtomicInteger();
+        Callable<Void> worker = () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < queries.size()) {
+                RouteKey route = queries.get(index);
+                long start = System.nanoTime();
+                TicketDataAnalyzer.calculateMinFlightsTimes(tickets, route.originName(), route.destinationName());
+                TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, route.originName(),
+                        route.destinationName());
+                latency.record(System.nanoTime() - start);
+            }
+            return null;
+        };
+        long queryStart = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        RuntimeException failure = null;
+        try {
+            List<Future<Void>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(worker));
+            }
+            for (Future<Void> future : workers) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Let the other workers run out of queries instead of measuring a partial run.
+                    next.set(queries.size());
+                    if (failure == null) {
+                        failure = new IllegalStateException("Load test query failed", e.getCause());
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            next.set(queries.size());
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load test interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        long queryNanos = System.nanoTime() - queryStart;
+
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+        return new Report(tickets.size(), fileBytes, parseNanos, queries.size(), queryNanos, latency, peakHeapBytes);
+    }
+
+    /**
+     * The entry point of the load test.
+     * <p>
+     * With {@code --generate <count>} the file is first overwritten with the given number of tickets from a
+     * {@link TicketDatasetGenerator}, whose defaults can be changed by {@code --routes <n>}, {@code --carriers <n>},
+     * {@code --skew <exponent>} and {@code --seed <seed>}; the file format follows its extension. The queries are drawn
+     * from the same generator description, {@code --queries <n>} of them, answered by {@code --threads <n>} threads.
+     * Unknown options, missing or malformed option values and extra arguments are rejected with a usage message.
+     * </p>
+     *
+     * @param args command-line arguments: the options above followed by an optional path to the ticket file,
+     *             which defaults to {@code load-test.ndjson}
+     */
+    public static void main(String[] args) {
+        TicketDatasetGenerator generator = TicketDatasetGenerator.defaults();
+        long generate = 0;
+        int routes = generator.routes();
+        int carriers = generator.carriers();
+        int queries = DEFAULT_QUERIES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String filepath = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals(GENERATE_OPTION)) {
+                    generate = Main.longOption(args, ++i, arg, 0, Long.MAX_VALUE);
+                } else if (arg.equals(ROUTES_OPTION)) {
+                    routes = (int) Main.longOption(args, ++i, arg, 1, Integer.MAX_VALUE);
+                } else if (arg.equals(CARRIERS_OPTION)) {
+                    carriers = (int) Main.longOption(args, ++i, arg, 1, Integer.MAX_VALUE);
+                } else if (arg.equals(SKEW_OPTION)) {
+                    generator = generator.withSkew(Main.doubleOption(args, ++i, arg));
+                } else if (arg.equals(SEED_OPTION)) {
+                    generator = generator.withSeed(Main.longOption(args, ++i, arg, Long.MIN_VALUE, Long.MAX_VALUE));
+                } else if (arg.equals(QUERIES_OPTION)) {
+                    queries = (int) Main.longOption(args, ++i, arg, 0, Integer.MAX_VALUE);
+                } else if (arg.equals(THREADS_OPTION)) {
+                    threads = (int) Main.longOption(args, ++i, arg, 1, Integer.MAX_VALUE);
+                } else if (arg.startsWith(Main.OPTION_PREFIX)) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                } else if (filepath != null) {
+                    throw new IllegalArgumentException("Unexpected argument: " + arg);
+                } else {
+                    filepath = arg;
+                }
+            }
+            generator = generator.withRoutesAndCarriers(routes, carriers);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(Main.USAGE_EXIT_STATUS);
+            return;
+        }
+        if (filepath == null) {
+            filepath = DEFAULT_FILE;
+        }
+
+        if (generate > 0) {
+            long start = System.nanoTime();
+            try {
+                generator.write(filepath, generate);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+            System.out.printf(Locale.ROOT, "generate: tickets=%d time=%.3f s rate=%.0f tickets/s%n",
+                    generate, seconds, generate / seconds);
+        }
+
+        Report report = run(filepath, generator.routeQueries(queries).toList(), threads);
+        if (report == null) {
+            System.out.println("No tickets could be read.");
+        } else {
+            System.out.print(report.format());
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package task;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Record describing a synthetic ticket dataset, with methods that generate it lazily and write it in any size.
+ * <p>
+ * Routes and carriers are drawn from Zipf distributions with exponent {@code skew}, so a few routes and carriers
+ * hold most of the tickets, as in real sales data; a skew of zero spreads the tickets uniformly. Every route has
+ * its own base price and flight duration, every carrier its own price level, and the price of a ticket is
+ * log-normally distributed around them with the relative spread {@code priceSpread}. Tickets with more stops take
+ * longer and cost less. Departure dates are spread uniformly over {@code departureDays} days.
+ * </p>
+ * <p>
+ * Route 0, the most frequent one, is {@value #FIRST_ORIGIN_NAME} to {@value #FIRST_DESTINATION_NAME}, the route
+ * reported by {@link Main}; the other routes are named {@code Origin<i>} to {@code Destination<i>}. The output is
+ * determined by the seed, so the same description always yields the same tickets. Descriptions are created with
+ * {@link #defaults()} and refined with the {@code with...} methods, which return new descriptions.
+ * </p>
+ *
+ * @param seed the seed of the random generator
+ * @param routes the number of distinct routes
+ * @param carriers the number of distinct carriers
+ * @param firstDepartureDate the first departure date
+ * @param departureDays the number of days the departure dates are spread over
+ * @param medianPrice the typical price of a ticket
+ * @param priceSpread the standard deviation of the logarithm of prices, for example {@code 0.3}
+ * @param skew the exponent of the Zipf distributions of routes and carriers, or {@code 0} for uniform ones
+ */
+public record TicketDatasetGenerator(long seed,
+                                     int routes,
+                                     int carriers,
+                                     LocalDate firstDepartureDate,
+                                     int departureDays,
+                                     double medianPrice,
+                                     double priceSpread,
+                                     double skew) {
+    /**
+     * Origin name of route 0.
+     */
+    public static final String FIRST_ORIGIN_NAME = "Владивосток";
+    /**
+     * Destination name of route 0.
+     */
+    public static final String FIRST_DESTINATION_NAME = "Тель-Авив";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int TIME_STEP_MINUTES = 5;
+    private static final int MAX_STOPS = 3;
+    private static final int WRITE_BUFFER = 256 * 1024;
+
+    /**
+     * Validates the description.
+     *
+     * @throws IllegalArgumentException if a count is not positive, or if a price parameter or the skew is negative
+     */
+    public TicketDatasetGenerator {
+        if (routes <= 0 || carriers <= 0 || departureDays <= 0) {
+            throw new IllegalArgumentException("Routes, carriers and departure days must be positive");
+        }
+        if (!(medianPrice > 0) || !(priceSpread >= 0) || !(skew >= 0)) {
+            throw new IllegalArgumentException("Median price must be positive, price spread and skew not negative");
+        }
+    }
+
+    /**
+     * Creates the default description: 100 routes, 10 carriers, departures over one year from May 2018, prices
+     * around 15,000 with a spread of 0.3 and a skew of 1.
+     *
+     * @return the default description
+     */
+    public static TicketDatasetGenerator defaults() {
+        return new TicketDatasetGenerator(42, 100, 10, LocalDate.of(2018, 5, 1), 365, 15_000, 0.3, 1.0);
+    }
+
+    /**
+     * Returns a copy of this description with another seed.
+     *
+     * @param newSeed the seed of the random generator
+     * @return a new description
+     */
+    public TicketDatasetGenerator withSeed(long newSeed) {
+        return new TicketDatasetGenerator(newSeed, routes, carriers, firstDepartureDate, departureDays, medianPrice,
+                priceSpread, skew);
+    }
+
+    /**
+     * Returns a copy of this description with other numbers of routes and carriers.
+     *
+     * @param newRoutes the number of distinct routes
+     * @param newCarriers the number of distinct carriers
+     * @return a new description
+     */
+    public TicketDatasetGenerator withRoutesAndCarriers(int newRoutes, int newCarriers) {
+        return new TicketDatasetGenerator(seed, newRoutes, newCarriers, firstDepartureDate, departureDays, medianPrice,
+                priceSpread, skew);
+    }
+
+    /**
+     * Returns a copy of this description with another range of departure dates.
+     *
+     * @param first the first departure date
+     * @param days the number of days the departure dates are spread over
+     * @return a new description
+     */
+    public TicketDatasetGenerator withDepartureDates(LocalDate first, int days) {
+        return new TicketDatasetGenerator(seed, routes, carriers, first, days, medianPrice, priceSpread, skew);
+    }
+
+    /**
+     * Returns a copy of this description with another price distribution.
+     *
+     * @param median the typical price of a ticket
+     * @param spread the standard deviation of the logarithm of prices
+     * @return a new description
+     */
+    public TicketDatasetGenerator withPrices(double median, double spread) {
+        return new TicketDatasetGenerator(seed, routes, carriers, firstDepartureDate, departureDays, median, spread, skew);
+    }
+
+    /**
+     * Returns a copy of this description with another skew of routes and carriers.
+     *
+     * @param newSkew the exponent of the Zipf distributions, or {@code 0} for uniform ones
+     * @return a new description
+     */
+    public TicketDatasetGenerator withSkew(double newSkew) {
+        return new TicketDatasetGenerator(seed, routes, carriers, firstDepartureDate, departureDays, medianPrice,
+                priceSpread, newSkew);
+    }
+
+    /**
+     * Returns the origin name of a route.
+     *
+     * @param route the index of the route
+     * @return the origin name
+     */
+    public static String originName(int route) {
+        return route == 0 ? FIRST_ORIGIN_NAME : "Origin" + route;
+    }
+
+    /**
+     * Returns the destination name of a route.
+     *
+     * @param route the index of the route
+     * @return the destination name
+     */
+    public static String destinationName(int route) {
+        return route == 0 ? FIRST_DESTINATION_NAME : "Destination" + route;
+    }
+
+    /**
+     * Returns a lazily generated stream of tickets, which holds only one ticket at a time in memory.
+     *
+     * @param count the number of tickets
+     * @return a sequential stream of the tickets
+     */
+    public Stream<TicketData> tickets(long count) {
+        Sampler sampler = new Sampler(this);
+        return Stream.generate(sampler::nextTicket).limit(count);
+    }
+
+    /**
+     * Returns a lazily generated stream of routes with the same skew as the tickets, for example to drive queries.
+     * The routes are drawn from a random generator independent of the one of the tickets.
+     *
+     * @param count the number of routes
+     * @return a sequential stream of route keys
+     */
+    public Stream<RouteKey> routeQueries(long count) {
+        Sampler sampler = new Sampler(withSeed(~seed));
+        return Stream.generate(() -> {
+            int route = sampler.nextRoute();
+            return new RouteKey(originName(route), destinationName(route));
+        }).limit(count);
+    }
+
+    /**
+     * Writes tickets to a file in the format read by {@link TicketJsonReader}, streaming them as they are generated.
+     * <p>
+     * Files whose name ends with {@code .ndjson} or {@code .jsonl} receive one ticket object per line, other files
+     * a JSON document with a {@code "tickets"} array. A {@code .gz} suffix compresses the file with gzip.
+     * </p>
+     *
+     * @param filepath the path to the file to write
+     * @param count the number of tickets
+     * @throws IOException if the file cannot be written
+     */
+    public void write(String filepath, long count) throws IOException {
+        boolean ndjson = TicketJsonReader.isNdjson(filepath);
+        OutputStream out = Files.newOutputStream(Path.of(filepath));
+        if (filepath.toLowerCase(Locale.ROOT).endsWith(".gz")) {
+            out = new GZIPOutputStream(out, WRITE_BUFFER);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER)) {
+            Sampler sampler = new Sampler(this);
+            if (ndjson) {
+                for (long i = 0; i < count; i++) {
+                    writeTicket(new JsonWriter(writer), sampler.nextTicket());
+                    writer.write('\n');
+                }
+            } else {
+                JsonWriter json = new JsonWriter(writer);
+                json.beginObject().name("tickets").beginArray();
+                for (long i = 0; i < count; i++) {
+                    writeTicket(json, sampler.nextTicket());
+                }
+                json.endArray().endObject().flush();
+            }
+        }
+    }
+
+    private static void writeTicket(JsonWriter json, TicketData ticket) throws IOException {
+        json.beginObject()
+                .name("origin").value(ticket.origin())
+                .name("origin_name").value(ticket.originName())
+                .name("destination").value(ticket.destination())
+                .name("destination_name").value(ticket.destinationName())
+                .name("departure_date").value(DATE_FORMAT.format(ticket.departureDate()))
+                .name("departure_time").value(TIME_FORMAT.format(ticket.departureTime()))
+                .name("arrival_date").value(DATE_FORMAT.format(ticket.arrivalDate()))
+                .name("arrival_time").value(TIME_FORMAT.format(ticket.arrivalTime()))
+                .name("carrier").value(ticket.carrier())
+                .name("stops").value(ticket.stops())
+                .name("price").value((long) ticket.price())
+                .endObject();
+    }
+
+    /**
+     * Random source of one generated dataset, with the per-route and per-carrier parameters drawn from the seed.
+     */
+    private static final class Sampler {
+        private final TicketDatasetGenerator spec;
+        private final SplittableRandom random;
+        private final double[] routeCumulative;
+        private final double[] carrierCumulative;
+        private final double[] routePrices;
+        private final int[] routeMinutes;
+        private final double[] carrierPriceFactors;
+        private final String[] carrierNames;
+
+        Sampler(TicketDatasetGenerator spec) {
+            this.spec = spec;
+            this.random = new SplittableRandom(spec.seed());
+            this.routeCumulative = zipf(spec.routes(), spec.skew());
+            this.carrierCumulative = zipf(spec.carriers(), spec.skew());
+            this.routePrices = new double[spec.routes()];
+            this.routeMinutes = new int[spec.routes()];
+            for (int route = 0; route < spec.routes(); route++) {
+                routePrices[route] = spec.medianPrice() * Math.exp(0.5 * random.nextDouble(-1, 1));
+                routeMinutes[route] = 60 + random.nextInt(12 * 60 / TIME_STEP_MINUTES) * TIME_STEP_MINUTES;
+            }
+            this.carrierPriceFactors = new double[spec.carriers()];
+            this.carrierNames = new String[spec.carriers()];
+            for (int carrier = 0; carrier < spec.carriers(); carrier++) {
+                carrierPriceFactors[carrier] = 0.8 + 0.4 * random.nextDouble();
+                carrierNames[carrier] = "C" + carrier;
+            }
+        }
+
+        int nextRoute() {
+            return sample(routeCumulative);
+        }
+
+        TicketData nextTicket() {
+            int route = nextRoute();
+            int carrier = sample(carrierCumulative);
+            int stops = random.nextInt(MAX_STOPS + 1);
+            LocalDate departureDate = spec.firstDepartureDate().plusDays(random.nextInt(spec.departureDays()));
+            int departureMinute = random.nextInt(MINUTES_PER_DAY / TIME_STEP_MINUTES) * TIME_STEP_MINUTES;
+            int flightMinutes = routeMinutes[route] + stops * (60 + random.nextInt(25) * TIME_STEP_MINUTES)
+                    + random.nextInt(7) * TIME_STEP_MINUTES;
+            int arrivalMinute = departureMinute + flightMinutes;
+            double price = routePrices[route] * carrierPriceFactors[carrier] * (1 - 0.08 * stops)
+                    * Math.exp(spec.priceSpread() * random.nextGaussian());
+            return new TicketData("O" + route, originName(route), "D" + route, destinationName(route),
+                    departureDate, minuteOfDay(departureMinute),
+                    departureDate.plusDays(arrivalMinute / MINUTES_PER_DAY), minuteOfDay(arrivalMinute % MINUTES_PER_DAY),
+                    carrierNames[carrier], stops, Math.max(1, Math.round(price)));
+        }
+
+        private int sample(double[] cumulative) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(cumulative.length - 1, index >= 0 ? index + 1 : -index - 1);
+        }
+
+        private static LocalTime minuteOfDay(int minute) {
+            return LocalTime.of(minute / 60, minute % 60);
+        }
+
+        /**
+         * Returns the cumulative probabilities of a Zipf distribution over {@code n} items.
+         */
+        private static double[] zipf(int n, double exponent) {
+            double[] cumulative = new double[n];
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                total += Math.pow(i + 1, -exponent);
+                cumulative[i] = total;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= total;
+            }
+            return cumulative;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package task;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline table of airport time zones used to compute real, UTC-based flight durations.
+ * <p>
+ * Ticket times are local to their airports, so the naive difference between arrival and departure is off by the
+ * difference of the two UTC offsets. This class resolves IATA codes to {@link ZoneId}s from a bundled table and
+ * caches the UTC offset of every (airport, date) pair in a primitive array, so that after the first ticket of a day
+ * the correction costs two array reads and no {@link java.time.ZonedDateTime} allocation. Days with an offset
+ * transition are not cached and are resolved exactly for the given time.
+ * </p>
+ * <p>
+ * Instances are safe for concurrent use: the cache is filled without locking, and a race can only cause an offset
+ * to be computed more than once.
+ * </p>
+ */
+public class AirportZones {
+    private static final String BUNDLED_TABLE = "/airports.csv";
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    /**
+     * First day of the cached range, which covers the years 2000–2099 of the two-digit ticket dates.
+     */
+    private static final long CACHE_FIRST_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final int CACHE_DAYS = (int) (LocalDate.of(2100, 1, 1).toEpochDay() - CACHE_FIRST_DAY);
+    private static final int UNKNOWN = 0;
+    private static final int TRANSITION = Integer.MIN_VALUE;
+    private static final int OFFSET_BIAS = 1 << 20;
+
+    private final SymbolTable airports;
+    private final ZoneId[] zones;
+    private final ZoneRules[] rules;
+    private final int[][] offsetCache;
+
+    private AirportZones(SymbolTable airports, ZoneId[] zones) {
+        this.airports = airports;
+        this.zones = zones;
+        this.rules = new ZoneRules[zones.length];
+        for (int i = 0; i < zones.length; i++) {
+            rules[i] = zones[i].getRules();
+        }
+        this.offsetCache = new int[zones.length][];
+    }
+
+    /**
+     * Returns the airport table bundled with the application.
+     *
+     * @return the bundled airport table
+     * @throws IllegalStateException if the bundled table is missing
+     * @throws UncheckedIOException if the bundled table cannot be read
+     */
+    public static AirportZones bundled() {
+        return BundledHolder.INSTANCE;
+    }
+
+    /**
+     * Reads an airport table with one {@code <IATA code>,<zone id>} entry per line.
+     * Blank lines and lines starting with {@code #} are ignored.
+     *
+     * @param reader the reader supplying the table
+     * @return the airport table
+     * @throws IOException if the table cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     * @throws java.time.DateTimeException if a zone id is not known
+     */
+    public static AirportZones load(Reader reader) throws IOException {
+        SymbolTable airports = new SymbolTable();
+        List<ZoneId> zones = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.indexOf(',');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Malformed airport entry: " + line);
+            }
+            ZoneId zone = ZoneId.of(line.substring(separator + 1).strip());
+            int id = airports.intern(line.substring(0, separator).strip());
+            if (id == zones.size()) {
+                zones.add(zone);
+            } else {
+                zones.set(id, zone);
+            }
+        }
+        return new AirportZones(airports, zones.toArray(new ZoneId[0]));
+    }
+
+    /**
+     * Returns the time zone of the airport.
+     *
+     * @param code the IATA code of the airport
+     * @return the time zone, or {@code null} if the airport is not in the table
+     */
+    public ZoneId zone(String code) {
+        int id = airports.id(code);
+        return id < 0 ? null : zones[id];
+    }
+
+    /**
+     * Calculates the real flight duration of the ticket in nanoseconds, taking the time zones of the origin and
+     * destination airports into account.
+     *
+     * @param ticket the ticket
+     * @return the flight duration in nanoseconds
+     * @throws IllegalArgumentException if the origin or destination airport is not in the table
+     */
+    public long flightNanos(TicketData ticket) {
+        int departureOffset = offsetSeconds(airportId(ticket.origin()), ticket.departureDate(), ticket.departureTime());
+        int arrivalOffset = offsetSeconds(airportId(ticket.destination()), ticket.arrivalDate(), ticket.arrivalTime());
+        return CarrierMinimums.flightNanos(ticket) - (arrivalOffset - departureOffset) * NANOS_PER_SECOND;
+    }
+
+    /**
+     * Returns the UTC offset in seconds of the airport at the given local date and time.
+     */
+    int offsetSeconds(int airport, LocalDate date, LocalTime time) {
+        long index = date.toEpochDay() - CACHE_FIRST_DAY;
+        if (index < 0 || index >= CACHE_DAYS) {
+            return rules[airport].getOffset(LocalDateTime.of(date, time)).getTotalSeconds();
+        }
+        int[] cache = offsetCache[airport];
+        if (cache == null) {
+            cache = new int[CACHE_DAYS];
+            offsetCache[airport] = cache;
+        }
+        int cached = cache[(int) index];
+        if (cached == UNKNOWN) {
+            int startOffset = rules[airport].getOffset(date.atStartOfDay()).getTotalSeconds();
+            int endOffset = rules[airport].getOffset(date.plusDays(1).atStartOfDay()).getTotalSeconds();
+            cached = startOffset == endOffset ? startOffset + OFFSET_BIAS : TRANSITION;
+            cache[(int) index] = cached;
+        }
+        if (cached == TRANSITION) {
+            return rules[airport].getOffset(LocalDateTime.of(date, time)).getTotalSeconds();
+        }
+        return cached - OFFSET_BIAS;
+    }
+
+    /**
+     * Returns the UTC offset in seconds of the airport at the given local date and time.
+     *
+     * @throws IllegalArgumentException if the airport is not in the table
+     */
+    int offsetSeconds(String code, LocalDate date, LocalTime time) {
+        return offsetSeconds(airportId(code), date, time);
+    }
+
+    private int airportId(String code) {
+        int id = airports.id(code);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown airport: " + code);
+        }
+        return id;
+    }
+
+    /**
+     * Lazily loaded bundled table.
+     */
+    private static final class BundledHolder {
+        private static final AirportZones INSTANCE = loadBundled();
+
+        private static AirportZones loadBundled() {
+            InputStream in = AirportZones.class.getResourceAsStream(BUNDLED_TABLE);
+            if (in == null) {
+                throw new IllegalStateException("Missing bundled airport table " + BUNDLED_TABLE);
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                return load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package task;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-carrier minimum flight durations kept in a primitive array indexed by carrier id.
+ * <p>
+ * Durations are computed with primitive arithmetic on the date and time fields of a ticket and stored as
+ * nanoseconds, so updating the minimums does not allocate once every carrier has been seen. {@link Duration}
+ * objects are only created by {@link #toDurations()}. Instances are not thread-safe.
+ * </p>
+ */
+class CarrierMinimums {
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final SymbolTable carriers = new SymbolTable();
+    private long[] minNanos = newMinimums(INITIAL_CAPACITY);
+
+    /**
+     * Calculates the flight duration of the ticket in nanoseconds.
+     * <p>
+     * The result equals {@code Duration.between(departure, arrival).toNanos()} for the naive local date-times
+     * of the ticket, for all flights shorter than about 292 years.
+     * </p>
+     *
+     * @param ticket the ticket
+     * @return the flight duration in nanoseconds
+     */
+    static long flightNanos(TicketData ticket) {
+        long days = ticket.arrivalDate().toEpochDay() - ticket.departureDate().toEpochDay();
+        return days * NANOS_PER_DAY + ticket.arrivalTime().toNanoOfDay() - ticket.departureTime().toNanoOfDay();
+    }
+
+    /**
+     * Records a flight of the carrier, keeping it if it is shorter than the current minimum.
+     *
+     * @param carrier the carrier name
+     * @param nanos the flight duration in nanoseconds
+     */
+    void update(String carrier, long nanos) {
+        int id = carriers.intern(carrier);
+        if (id == minNanos.length) {
+            int length = minNanos.length;
+            minNanos = Arrays.copyOf(minNanos, length * 2);
+            Arrays.fill(minNanos, length, minNanos.length, Long.MAX_VALUE);
+        }
+        if (nanos < minNanos[id]) {
+            minNanos[id] = nanos;
+        }
+    }
+
+    /**
+     * Merges the minimums of another instance into this one.
+     *
+     * @param other the minimums to merge
+     */
+    void combine(CarrierMinimums other) {
+        for (int id = 0; id < other.carriers.size(); id++) {
+            update(other.carriers.symbol(id), other.minNanos[id]);
+        }
+    }
+
+    /**
+     * Converts the minimums to durations.
+     *
+     * @return a new map where the keys are carrier names and the values are the minimum flight durations
+     */
+    Map<String, Duration> toDurations() {
+        Map<String, Duration> durations = new HashMap<>();
+        for (int id = 0; id < carriers.size(); id++) {
+            durations.put(carriers.symbol(id), Duration.ofNanos(minNanos[id]));
+        }
+        return durations;
+    }
+
+    private static long[] newMinimums(int capacity) {
+        long[] minimums = new long[capacity];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        return minimums;
+    }
+}
@@ -0,0 +1,291 @@
+package task;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Exact median of a stream of values that may not fit into memory.
+ * <p>
+ * Values are collected in a primitive buffer that grows on demand up to the memory budget, so a small input takes
+ * only as much memory as it needs. Whenever the buffer is full at the size of the budget, it is sorted and spilled
+ * to a temporary file as a run of raw doubles. {@link #median()} sorts the values still in the buffer and merges
+ * them with all runs through a k-way merge, stopping at the middle of the sorted sequence, so it reads at most half
+ * of the spilled data. Values are ordered as by {@link Double#compare(double, double)} and
+ * the two middle values of an even count are averaged in the same way, so the result is bit-identical to
+ * {@link Quantiles#median(double[], int)} over all values.
+ * </p>
+ * <p>
+ * The memory budget bounds the buffer; the merge reuses about the same amount for the read buffers of the runs,
+ * with at least {@value #MIN_READ_BUFFER} bytes per run. The temporary files are deleted by {@link #close()}.
+ * Instances are not thread-safe.
+ * </p>
+ */
+public class ExternalMedian implements DoubleConsumer, AutoCloseable {
+    /**
+     * The smallest accepted memory budget in bytes.
+     */
+    public static final long MIN_MEMORY_BYTES = 1024;
+
+    private static final int MIN_READ_BUFFER = 8 * 1024;
+    private static final int WRITE_BUFFER = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long memoryBytes;
+    private final Path directory;
+    private final int capacity;
+    private final List<Path> runs = new ArrayList<>();
+    private double[] buffer;
+    private int size;
+    private long count;
+
+    /**
+     * Creates an empty median that spills to the default temporary-file directory.
+     *
+     * @param memoryBytes the memory budget of the buffered values in bytes
+     * @throws IllegalArgumentException if the budget is less than {@link #MIN_MEMORY_BYTES}
+     */
+    public ExternalMedian(long memoryBytes) {
+        this(memoryBytes, null);
+    }
+
+    /**
+     * Creates an empty median that spills to the given directory.
+     *
+     * @param memoryBytes the memory budget of the buffered values in bytes
+     * @param directory the directory of the temporary files, or {@code null} for the default temporary-file directory
+     * @throws IllegalArgumentException if the budget is less than {@link #MIN_MEMORY_BYTES}
+     */
+    public ExternalMedian(long memoryBytes, Path directory) {
+        if (memoryBytes < MIN_MEMORY_BYTES) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_MEMORY_BYTES + " bytes: " + memoryBytes);
+        }
+        this.memoryBytes = memoryBytes;
+        this.directory = directory;
+        this.capacity = (int) Math.min(Integer.MAX_VALUE - 8, memoryBytes / Double.BYTES);
+        this.buffer = new double[Math.min(INITIAL_CAPACITY, capacity)];
+    }
+
+    /**
+     * Adds a value, growing the buffer or, once it has reached the memory budget, spilling it to a temporary file
+     * if it is full.
+     *
+     * @param value the value to add
+     * @throws UncheckedIOException if the buffer cannot be spilled
+     */
+    @Override
+    public void accept(double value) {
+        if (size == buffer.length) {
+            if (buffer.length < capacity) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(capacity, 2L * buffer.length));
+            } else {
+                spill();
+            }
+        }
+        buffer[size++] = value;
+        count++;
+    }
+
+    /**
+     * Calculates the exact median of all values added so far. More values can be added afterwards.
+     *
+     * @return the median, or NaN if no value has been added
+     * @throws UncheckedIOException if the temporary files cannot be read
+     */
+    public double median() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (runs.isEmpty()) {
+            return Quantiles.median(buffer, size);
+        }
+        Arrays.sort(buffer, 0, size);
+        long middle = count / 2;
+        try (RunMerger merger = new RunMerger()) {
+            merger.skip(middle - 1);
+            double lower = merger.next();
+            double upper = merger.next();
+            return count % 2 == 1 ? upper : (lower + upper) / 2.0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of sorted runs spilled to temporary files.
+     *
+     * @return the number of runs
+     */
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Deletes the temporary files. The median must not be used afterwards.
+     *
+     * @throws IOException if a temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        runs.clear();
+        buffer = new double[0];
+        size = 0;
+        count = 0;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void spill() {
+        Arrays.sort(buffer, 0, size);
+        try {
+            Path run = directory == null ? Files.createTempFile("prices", ".run")
+                    : Files.createTempFile(directory, "prices", ".run");
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), WRITE_BUFFER))) {
+                for (int i = 0; i < size; i++) {
+                    out.writeDouble(buffer[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        size = 0;
+    }
+
+    /**
+     * K-way merge of the spilled runs and the sorted buffer, using a binary heap of the sources ordered by
+     * their current values. Source {@code runs.size()} is the buffer.
+     */
+    private final class RunMerger implements AutoCloseable {
+        private final DataInputStream[] inputs;
+        private final long[] remaining;
+        private final double[] heads;
+        private final int[] heap;
+        private int heapSize;
+        private int bufferPosition;
+
+        RunMerger() throws IOException {
+            int sources = runs.size() + 1;
+            inputs = new DataInputStream[runs.size()];
+            remaining = new long[sources];
+            heads = new double[sources];
+            heap = new int[sources];
+            int readBuffer = (int) Math.max(MIN_READ_BUFFER, Math.min(Integer.MAX_VALUE - 8, memoryBytes / sources));
+            try {
+                for (int source = 0; source < runs.size(); source++) {
+                    Path run = runs.get(source);
+                    long runBytes = Files.size(run);
+                    int runBuffer = (int) Math.max(MIN_READ_BUFFER, Math.min(readBuffer, runBytes));
+                    inputs[source] = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), runBuffer));
+                    remaining[source] = runBytes / Double.BYTES;
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            remaining[runs.size()] = size;
+            for (int source = 0; source < sources; source++) {
+                if (advance(source)) {
+                    heap[heapSize++] = source;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        void skip(long values) throws IOException {
+            for (long i = 0; i < values; i++) {
+                next();
+            }
+        }
+
+        /**
+         * Returns the next value in sorted order. Must not be called after all values have been returned.
+         */
+        double next() throws IOException {
+            int source = heap[0];
+            double value = heads[source];
+            if (advance(source)) {
+                siftDown(0);
+            } else {
+                heap[0] = heap[--heapSize];
+                siftDown(0);
+            }
+            return value;
+        }
+
+        /**
+         * Loads the next value of the source into its head.
+         *
+         * @return {@code false} if the source is exhausted
+         */
+        private boolean advance(int source) throws IOException {
+            if (remaining[source] == 0) {
+                return false;
+            }
+            remaining[source]--;
+            heads[source] = source == inputs.length ? buffer[bufferPosition++] : inputs[source].readDouble();
+            return true;
+        }
+
+        private void siftDown(int index) {
+            int source = heap[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && Double.compare(heads[heap[child + 1]], heads[heap[child]]) < 0) {
+                    child++;
+                }
+                if (Double.compare(heads[heap[child]], heads[source]) >= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = source;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataInputStream input : inputs) {
+                if (input != null) {
+                    input.close();
+                }
+            }
+        }
+    }
+}
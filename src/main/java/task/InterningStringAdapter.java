@@ -0,0 +1,48 @@
+package task;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Gson adapter that deserializes strings into canonical instances of a {@link SymbolTable}.
+ * <p>
+ * The string fields of tickets take only a handful of distinct values, such as city names and carriers, but Gson
+ * creates a new {@link String} for every field of every ticket. With this adapter all equal strings read through
+ * the same Gson instance are one object, so duplicate strings no longer grow with the number of tickets. Their hash
+ * code is also computed only once, and {@link String#equals(Object)} between two fields returns on the identity
+ * check. Each load uses its own table, which is not thread-safe, so the Gson instance must not be shared between
+ * threads.
+ * </p>
+ */
+public class InterningStringAdapter extends TypeAdapter<String> {
+    private final SymbolTable symbols;
+
+    /**
+     * Creates an adapter that interns strings into the given table.
+     *
+     * @param symbols the table holding the canonical strings
+     */
+    public InterningStringAdapter(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    @Override
+    public String read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String value = token == JsonToken.BOOLEAN ? Boolean.toString(in.nextBoolean()) : in.nextString();
+        return symbols.canonical(value);
+    }
+
+    @Override
+    public void write(JsonWriter out, String value) throws IOException {
+        out.value(value);
+    }
+}
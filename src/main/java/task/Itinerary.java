@@ -0,0 +1,66 @@
+package task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Record representing a journey made of one or more consecutive tickets.
+ *
+ * @param legs the tickets of the journey in travel order
+ */
+public record Itinerary(List<TicketData> legs) {
+    /**
+     * Creates an itinerary with an unmodifiable copy of the legs.
+     *
+     * @throws IllegalArgumentException if there are no legs
+     */
+    public Itinerary {
+        if (legs.isEmpty()) {
+            throw new IllegalArgumentException("An itinerary needs at least one leg");
+        }
+        legs = List.copyOf(legs);
+    }
+
+    /**
+     * Returns the departure of the first leg.
+     *
+     * @return the departure date and time
+     */
+    public LocalDateTime departure() {
+        TicketData first = legs.get(0);
+        return LocalDateTime.of(first.departureDate(), first.departureTime());
+    }
+
+    /**
+     * Returns the arrival of the last leg.
+     *
+     * @return the arrival date and time
+     */
+    public LocalDateTime arrival() {
+        TicketData last = legs.get(legs.size() - 1);
+        return LocalDateTime.of(last.arrivalDate(), last.arrivalTime());
+    }
+
+    /**
+     * Returns the total travel time from the first departure to the last arrival, including layovers.
+     *
+     * @return the travel time
+     */
+    public Duration duration() {
+        return Duration.between(departure(), arrival());
+    }
+
+    /**
+     * Returns the sum of the prices of all legs.
+     *
+     * @return the total price
+     */
+    public double price() {
+        double price = 0;
+        for (TicketData leg : legs) {
+            price += leg.price();
+        }
+        return price;
+    }
+}
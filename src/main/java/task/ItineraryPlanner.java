@@ -0,0 +1,349 @@
+package task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Search engine for journeys over connecting flights.
+ * <p>
+ * The tickets form a time-dependent graph whose nodes are the cities (origin and destination names) and whose
+ * edges are the tickets, each usable only at its own departure time. When the planner is built, the tickets are
+ * turned into connections sorted by departure and stored in primitive arrays of city ids, epoch minutes and prices.
+ * Queries are then answered with the connection scan algorithm: a single forward pass over the connections from the
+ * requested departure time, with no priority queue over the graph and no per-connection allocation.
+ * </p>
+ * <p>
+ * Between two legs the traveller needs at least the requested minimum layover. Like the ticket format, times
+ * have minute resolution. They are compared as local times unless the planner is built with {@link AirportZones},
+ * in which case they are converted to UTC. Connections are scanned in the order of these times, so with local times
+ * a leg flying west into an earlier time zone is only combined with connections that depart after it in local time;
+ * building with airport zones orders connections by the instants they depart. The planner is immutable once built
+ * and can be queried concurrently.
+ * </p>
+ */
+public class ItineraryPlanner {
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+    private static final int NONE = -1;
+
+    private final SymbolTable cities;
+    private final TicketData[] tickets;
+    private final int[] origins;
+    private final int[] destinations;
+    private final long[] departures;
+    private final long[] arrivals;
+    private final double[] prices;
+    private final boolean arrivalsFollowDepartures;
+
+    private ItineraryPlanner(SymbolTable cities, TicketData[] tickets, int[] origins, int[] destinations,
+                             long[] departures, long[] arrivals, double[] prices, boolean arrivalsFollowDepartures) {
+        this.cities = cities;
+        this.tickets = tickets;
+        this.origins = origins;
+        this.destinations = destinations;
+        this.departures = departures;
+        this.arrivals = arrivals;
+        this.prices = prices;
+        this.arrivalsFollowDepartures = arrivalsFollowDepartures;
+    }
+
+    /**
+     * Builds a planner over the specified tickets.
+     *
+     * @param tickets the tickets that can be combined into itineraries
+     * @return a new planner
+     */
+    public static ItineraryPlanner build(Iterable<TicketData> tickets) {
+        return build(tickets, null);
+    }
+
+    /**
+     * Builds a planner over the specified tickets whose times are compared in UTC.
+     * <p>
+     * The local departure and arrival times are converted with the time zones of the origin and destination
+     * airports, and the earliest departure of a query is then a UTC date and time.
+     * </p>
+     *
+     * @param tickets the tickets that can be combined into itineraries
+     * @param zones the time zones of the airports, or {@code null} to compare local times
+     * @return a new planner
+     * @throws IllegalArgumentException if an airport of a ticket is not in the table
+     */
+    public static ItineraryPlanner build(Iterable<TicketData> tickets, AirportZones zones) {
+        List<TicketData> list = new ArrayList<>();
+        tickets.forEach(list::add);
+        int size = list.size();
+        long[] unsortedDepartures = new long[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            TicketData ticket = list.get(i);
+            unsortedDepartures[i] = epochMinute(zones, ticket.origin(), ticket.departureDate(), ticket.departureTime());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(unsortedDepartures[a], unsortedDepartures[b]));
+
+        SymbolTable cities = new SymbolTable();
+        TicketData[] sorted = new TicketData[size];
+        int[] origins = new int[size];
+        int[] destinations = new int[size];
+        long[] departures = new long[size];
+        long[] arrivals = new long[size];
+        double[] prices = new double[size];
+        boolean arrivalsFollowDepartures = true;
+        for (int c = 0; c < size; c++) {
+            TicketData ticket = list.get(order[c]);
+            sorted[c] = ticket;
+            origins[c] = cities.intern(ticket.originName());
+            destinations[c] = cities.intern(ticket.destinationName());
+            departures[c] = unsortedDepartures[order[c]];
+            arrivals[c] = epochMinute(zones, ticket.destination(), ticket.arrivalDate(), ticket.arrivalTime());
+            prices[c] = ticket.price();
+            arrivalsFollowDepartures &= arrivals[c] >= departures[c];
+        }
+        return new ItineraryPlanner(cities, sorted, origins, destinations, departures, arrivals, prices,
+                arrivalsFollowDepartures);
+    }
+
+    /**
+     * Returns the number of tickets known to the planner.
+     *
+     * @return the number of tickets
+     */
+    public int size() {
+        return tickets.length;
+    }
+
+    /**
+     * Finds the itinerary that arrives first at the destination.
+     * <p>
+     * Among itineraries with the same arrival, the one found first in departure order is returned. Every improving
+     * connection records the connection it was boarded from at that moment, which always precedes it in the scan, so
+     * the journey is rebuilt without cycles even when a leg arrives before it departs in local time.
+     * </p>
+     *
+     * @param origin the origin name
+     * @param destination the destination name
+     * @param earliestDeparture the earliest allowed departure, in UTC for a planner built with airport zones, or
+     * {@code null} for any departure
+     * @param minLayover the minimum time between the arrival of a leg and the departure of the next one
+     * @return the earliest arriving itinerary, or {@code null} if the destination cannot be reached
+     */
+    public Itinerary findEarliestArrival(String origin, String destination, LocalDateTime earliestDeparture,
+                                         Duration minLayover) {
+        int source = cities.id(origin);
+        int target = cities.id(destination);
+        if (source < 0 || target < 0 || source == target) {
+            return null;
+        }
+        long layover = minLayover.toMinutes();
+        long[] ready = new long[cities.size()];
+        Arrays.fill(ready, UNREACHABLE);
+        int[] inbound = new int[cities.size()];
+        Arrays.fill(inbound, NONE);
+        int[] predecessor = new int[departures.length];
+        long start = startMinute(earliestDeparture);
+        ready[source] = start;
+        long bestArrival = UNREACHABLE;
+
+        // Once connections depart after the best arrival they cannot improve it, unless some leg arrives before it
+        // departs, which happens with local times across time zones.
+        for (int c = firstConnection(start); c < departures.length
+                && (!arrivalsFollowDepartures || departures[c] < bestArrival); c++) {
+            int from = origins[c];
+            int to = destinations[c];
+            if (departures[c] < ready[from] || to == source) {
+                continue;
+            }
+            if (to == target) {
+                if (arrivals[c] < bestArrival) {
+                    bestArrival = arrivals[c];
+                    inbound[target] = c;
+                    predecessor[c] = from == source ? NONE : inbound[from];
+                }
+            } else if (arrivals[c] + layover < ready[to]) {
+                ready[to] = arrivals[c] + layover;
+                inbound[to] = c;
+                predecessor[c] = from == source ? NONE : inbound[from];
+            }
+        }
+        if (inbound[target] == NONE) {
+            return null;
+        }
+        Deque<TicketData> legs = new ArrayDeque<>();
+        for (int c = inbound[target]; c != NONE; c = predecessor[c]) {
+            legs.addFirst(tickets[c]);
+        }
+        return new Itinerary(new ArrayList<>(legs));
+    }
+
+    /**
+     * Finds the cheapest itinerary to the destination.
+     * <p>
+     * The connections are scanned in departure order, keeping for every connection the cheapest price at which it
+     * can be boarded. A connection becomes a possible predecessor of the connections leaving its destination once
+     * its arrival plus the layover has passed; such events are kept in a heap ordered by that time, so each
+     * connection is pushed and popped at most once. Among itineraries with the same price, the one arriving first
+     * is returned.
+     * </p>
+     *
+     * @param origin the origin name
+     * @param destination the destination name
+     * @param earliestDeparture the earliest allowed departure, in UTC for a planner built with airport zones, or
+     * {@code null} for any departure
+     * @param minLayover the minimum time between the arrival of a leg and the departure of the next one
+     * @return the cheapest itinerary, or {@code null} if the destination cannot be reached
+     */
+    public Itinerary findCheapest(String origin, String destination, LocalDateTime earliestDeparture,
+                                  Duration minLayover) {
+        int source = cities.id(origin);
+        int target = cities.id(destination);
+        if (source < 0 || target < 0 || source == target) {
+            return null;
+        }
+        long layover = minLayover.toMinutes();
+        double[] bestCost = new double[cities.size()];
+        Arrays.fill(bestCost, Double.POSITIVE_INFINITY);
+        int[] bestInbound = new int[cities.size()];
+        Arrays.fill(bestInbound, NONE);
+        bestCost[source] = 0;
+        double[] cost = new double[departures.length];
+        int[] predecessor = new int[departures.length];
+        ReadyHeap heap = new ReadyHeap(arrivals, layover);
+        int best = NONE;
+
+        for (int c = firstConnection(startMinute(earliestDeparture)); c < departures.length; c++) {
+            while (!heap.isEmpty() && heap.peekReady() <= departures[c]) {
+                int arrived = heap.poll();
+                int city = destinations[arrived];
+                if (cost[arrived] < bestCost[city]) {
+                    bestCost[city] = cost[arrived];
+                    bestInbound[city] = arrived;
+                }
+            }
+            int from = origins[c];
+            int to = destinations[c];
+            if (bestCost[from] == Double.POSITIVE_INFINITY || to == source) {
+                continue;
+            }
+            cost[c] = bestCost[from] + prices[c];
+            predecessor[c] = from == source ? NONE : bestInbound[from];
+            if (to == target) {
+                if (best == NONE || cost[c] < cost[best] || cost[c] == cost[best] && arrivals[c] < arrivals[best]) {
+                    best = c;
+                }
+            } else {
+                heap.push(c);
+            }
+        }
+        if (best == NONE) {
+            return null;
+        }
+        Deque<TicketData> legs = new ArrayDeque<>();
+        for (int c = best; c != NONE; c = predecessor[c]) {
+            legs.addFirst(tickets[c]);
+        }
+        return new Itinerary(new ArrayList<>(legs));
+    }
+
+    private static long epochMinute(AirportZones zones, String airport, LocalDate date, LocalTime time) {
+        long minute = TicketStore.epochMinute(date, time);
+        return zones == null ? minute : minute - zones.offsetSeconds(airport, date, time) / 60;
+    }
+
+    private static long startMinute(LocalDateTime earliestDeparture) {
+        if (earliestDeparture == null) {
+            return Long.MIN_VALUE;
+        }
+        return TicketStore.epochMinute(earliestDeparture.toLocalDate(), earliestDeparture.toLocalTime());
+    }
+
+    /**
+     * Returns the index of the first connection departing at or after the given minute.
+     */
+    private int firstConnection(long minute) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departures[middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary min-heap of connection indices ordered by the time their arrival plus the layover has passed.
+     */
+    private static final class ReadyHeap {
+        private final long[] arrivals;
+        private final long layover;
+        private int[] heap = new int[16];
+        private int size;
+
+        ReadyHeap(long[] arrivals, long layover) {
+            this.arrivals = arrivals;
+            this.layover = layover;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long peekReady() {
+            return ready(heap[0]);
+        }
+
+        void push(int connection) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int index = size++;
+            long key = ready(connection);
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (ready(heap[parent]) <= key) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = connection;
+        }
+
+        int poll() {
+            int top = heap[0];
+            int last = heap[--size];
+            long key = ready(last);
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && ready(heap[child + 1]) < ready(heap[child])) {
+                    child++;
+                }
+                if (ready(heap[child]) >= key) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = last;
+            return top;
+        }
+
+        private long ready(int connection) {
+            return arrivals[connection] + layover;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package task;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Metrics sink that emits every measurement as a custom Java Flight Recorder event.
+ * <p>
+ * Operations are emitted as {@value #OPERATION_EVENT} events and errors as {@value #ERROR_EVENT} events, which
+ * appear next to the JVM's own events in a recording, for example one started with
+ * {@code -XX:StartFlightRecording}. When no recording has the events enabled, recording a measurement only
+ * checks {@link Event#shouldCommit()}.
+ * </p>
+ */
+public class JfrMetricsSink implements MetricsSink {
+    /**
+     * Name of the event emitted for every completed operation.
+     */
+    public static final String OPERATION_EVENT = "task.TicketOperation";
+    /**
+     * Name of the event emitted for every failed operation.
+     */
+    public static final String ERROR_EVENT = "task.TicketOperationError";
+
+    @Override
+    public void recordOperation(String operation, long durationNanos, long allocatedBytes, long tickets, long bytes) {
+        OperationEvent event = new OperationEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.latency = durationNanos;
+            event.allocatedBytes = allocatedBytes;
+            event.tickets = tickets;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void recordError(String operation, Throwable error) {
+        ErrorEvent event = new ErrorEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.errorClass = error.getClass().getName();
+            event.message = error.getMessage();
+            event.commit();
+        }
+    }
+
+    @Name(OPERATION_EVENT)
+    @Label("Ticket Operation")
+    @Category("Tickets")
+    @Description("A completed read or analysis of ticket data")
+    @StackTrace(false)
+    static class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+
+        @Label("Allocated")
+        @Description("Bytes allocated by the calling thread, or -1 if unknown")
+        @DataAmount
+        long allocatedBytes;
+
+        @Label("Tickets")
+        long tickets;
+
+        @Label("Bytes Read")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name(ERROR_EVENT)
+    @Label("Ticket Operation Error")
+    @Category("Tickets")
+    @Description("A read or analysis of ticket data that failed")
+    static class ErrorEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Error Class")
+        String errorClass;
+
+        @Label("Message")
+        String message;
+    }
+}
@@ -0,0 +1,148 @@
+package task;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of non-negative values, such as latencies in nanoseconds, with log-linear buckets.
+ * <p>
+ * As in HdrHistogram, values below 128 have a bucket each and every larger power-of-two range is split into 64
+ * buckets of equal width, so a recorded value is known to within 1/64 (about 1.6%) of its magnitude across the
+ * whole {@code long} range. The histogram has a fixed size of a few thousand counters, and recording a value
+ * costs a few shifts and one atomic increment, without locking or allocation.
+ * </p>
+ * <p>
+ * Statistics read while values are being recorded may not include the most recent values.
+ * </p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKETS = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        counts.incrementAndGet(bucketIndex(recorded));
+        count.increment();
+        total.add(recorded);
+        max.accumulate(recorded);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return the sum of the values
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the largest value, or {@code 0} if no value has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or NaN if no value has been recorded
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? Double.NaN : (double) getTotal() / n;
+    }
+
+    /**
+     * Returns the value at the given percentile.
+     * <p>
+     * The result is the largest value of the bucket that contains the percentile, capped at the largest recorded
+     * value, so it is never less than the exact percentile and exceeds it by at most 1/64 of its magnitude.
+     * </p>
+     *
+     * @param percentile the percentile, from {@code 0} to {@code 100}
+     * @return the value at the percentile, or {@code 0} if no value has been recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the index of the bucket containing the non-negative value.
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) ((value >>> shift) - HALF_SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the smallest value of the bucket.
+     */
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return subBucket << shift;
+    }
+
+    /**
+     * Returns the largest value of the bucket.
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+}
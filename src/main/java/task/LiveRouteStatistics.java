@@ -0,0 +1,233 @@
+package task;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of a single route that support both adding and removing tickets.
+ * <p>
+ * {@link RouteStatistics} only grows, which is enough to read a file once but not to follow a feed where fares
+ * are also withdrawn. This class keeps every aggregate in a structure that can be updated in both directions in
+ * logarithmic time: the flight durations of each carrier as a sorted multiset whose first key is the minimum,
+ * the count and a compensated sum of the prices for the average, and the prices split into a lower and an upper
+ * sorted multiset of balanced sizes, whose boundary keys give the median without a selection pass.
+ * </p>
+ * <p>
+ * As long as tickets are only added, the average and median are identical to the ones of
+ * {@link TicketDataAnalyzer}; removals apply the same compensated summation to the negated price.
+ * Instances are not thread-safe.
+ * </p>
+ */
+public class LiveRouteStatistics {
+    private final String origin;
+    private final String destination;
+    private final Map<TicketKey, Integer> tickets = new HashMap<>();
+    private final Map<String, TreeMap<Long, Integer>> carrierDurations = new HashMap<>();
+    private final TreeMap<Double, Integer> lowerPrices = new TreeMap<>();
+    private final TreeMap<Double, Integer> upperPrices = new TreeMap<>();
+    private int lowerSize;
+    private int upperSize;
+    private double sum;
+    private double sumCompensation;
+
+    /**
+     * Creates empty statistics for the specified route.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     */
+    public LiveRouteStatistics(String origin, String destination) {
+        this.origin = origin;
+        this.destination = destination;
+    }
+
+    /**
+     * Adds the ticket to the statistics without checking its route.
+     *
+     * @param ticket the ticket to add, which must belong to the route
+     */
+    public void add(TicketData ticket) {
+        long nanos = CarrierMinimums.flightNanos(ticket);
+        double price = ticket.price();
+        tickets.merge(new TicketKey(ticket.carrier(), nanos, price), 1, Integer::sum);
+        increment(carrierDurations.computeIfAbsent(ticket.carrier(), carrier -> new TreeMap<>()), nanos);
+        if (lowerSize == 0 || Double.compare(price, lowerPrices.lastKey()) <= 0) {
+            increment(lowerPrices, price);
+            lowerSize++;
+        } else {
+            increment(upperPrices, price);
+            upperSize++;
+        }
+        rebalance();
+        sumWithCompensation(price);
+    }
+
+    /**
+     * Removes a ticket previously added to the statistics.
+     * <p>
+     * Tickets are not stored, so any ticket of the route with the same carrier, flight duration and price counts
+     * as the same ticket.
+     * </p>
+     *
+     * @param ticket the ticket to remove, which must belong to the route
+     * @return {@code true} if the ticket was removed, {@code false} if no matching ticket had been added
+     */
+    public boolean remove(TicketData ticket) {
+        long nanos = CarrierMinimums.flightNanos(ticket);
+        double price = ticket.price();
+        TicketKey key = new TicketKey(ticket.carrier(), nanos, price);
+        if (!tickets.containsKey(key)) {
+            return false;
+        }
+        tickets.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+        TreeMap<Long, Integer> durations = carrierDurations.get(ticket.carrier());
+        decrement(durations, nanos);
+        if (durations.isEmpty()) {
+            carrierDurations.remove(ticket.carrier());
+        }
+        if (lowerPrices.containsKey(price)) {
+            decrement(lowerPrices, price);
+            lowerSize--;
+        } else {
+            decrement(upperPrices, price);
+            upperSize--;
+        }
+        rebalance();
+        if (getCount() == 0) {
+            sum = 0;
+            sumCompensation = 0;
+        } else {
+            sumWithCompensation(-price);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the origin name of the route.
+     *
+     * @return the origin name
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Returns the destination name of the route.
+     *
+     * @return the destination name
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    /**
+     * Returns the current number of tickets of the route.
+     *
+     * @return the number of tickets
+     */
+    public long getCount() {
+        return lowerSize + upperSize;
+    }
+
+    /**
+     * Returns the minimum flight durations for each carrier of the route.
+     *
+     * @return a new map where the keys are carrier names and the values are the minimum flight durations
+     */
+    public Map<String, Duration> getMinFlightsTimes() {
+        Map<String, Duration> durations = new HashMap<>();
+        for (Map.Entry<String, TreeMap<Long, Integer>> entry : carrierDurations.entrySet()) {
+            durations.put(entry.getKey(), Duration.ofNanos(entry.getValue().firstKey()));
+        }
+        return durations;
+    }
+
+    /**
+     * Returns the average ticket price of the route.
+     *
+     * @return the average price, or NaN if there are no tickets
+     */
+    public double getAveragePrice() {
+        if (getCount() == 0)
+            return Double.NaN;
+        return (sum - sumCompensation) / getCount();
+    }
+
+    /**
+     * Returns the median ticket price of the route.
+     *
+     * @return the median price, or NaN if there are no tickets
+     */
+    public double getMedianPrice() {
+        if (lowerSize == 0)
+            return Double.NaN;
+        if (lowerSize > upperSize) {
+            return lowerPrices.lastKey();
+        }
+        return (lowerPrices.lastKey() + upperPrices.firstKey()) / 2.0;
+    }
+
+    /**
+     * Returns the difference between the average and median ticket prices of the route.
+     *
+     * @return the difference between average and median prices, or NaN if there are no tickets
+     */
+    public double getAverageAndMedianPriceDifference() {
+        return getAveragePrice() - getMedianPrice();
+    }
+
+    /**
+     * Creates a report of the current values of the statistics.
+     *
+     * @return the report
+     */
+    public RouteReport toReport() {
+        return new RouteReport(new RouteKey(origin, destination), getCount(), getMinFlightsTimes(),
+                getAveragePrice(), getMedianPrice());
+    }
+
+    /**
+     * Restores the invariant that the lower half holds as many prices as the upper half or one more.
+     */
+    private void rebalance() {
+        if (lowerSize > upperSize + 1) {
+            double price = lowerPrices.lastKey();
+            decrement(lowerPrices, price);
+            increment(upperPrices, price);
+            lowerSize--;
+            upperSize++;
+        } else if (upperSize > lowerSize) {
+            double price = upperPrices.firstKey();
+            decrement(upperPrices, price);
+            increment(lowerPrices, price);
+            upperSize--;
+            lowerSize++;
+        }
+    }
+
+    /**
+     * Adds the value to the sum with Kahan summation, as {@link java.util.DoubleSummaryStatistics} does.
+     */
+    private void sumWithCompensation(double value) {
+        double tmp = value - sumCompensation;
+        double velvel = sum + tmp;
+        sumCompensation = (velvel - sum) - tmp;
+        sum = velvel;
+    }
+
+    private static <K> void increment(TreeMap<K, Integer> multiset, K key) {
+        multiset.merge(key, 1, Integer::sum);
+    }
+
+    private static <K> void decrement(TreeMap<K, Integer> multiset, K key) {
+        multiset.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * The fields that identify a ticket within its route, so that only a ticket that was added can be removed.
+     */
+    private record TicketKey(String carrier, long flightNanos, double price) {
+    }
+}
@@ -0,0 +1,90 @@
+package task;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe per-route aggregates that are kept up to date as tickets are added and removed.
+ * <p>
+ * Every route has its own {@link LiveRouteStatistics}, locked independently, so an update only blocks queries of
+ * the same route and only for the logarithmic time of the update. Queries therefore stay fast while a
+ * {@link TicketDeltaLog} applies changes, and the data never has to be reloaded from scratch.
+ * </p>
+ */
+public class LiveTicketAggregates {
+    private final ConcurrentMap<RouteKey, LiveRouteStatistics> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates aggregates containing the specified tickets.
+     *
+     * @param tickets the initial tickets
+     * @return new aggregates of the tickets
+     */
+    public static LiveTicketAggregates of(Iterable<TicketData> tickets) {
+        LiveTicketAggregates aggregates = new LiveTicketAggregates();
+        for (TicketData ticket : tickets) {
+            aggregates.add(ticket);
+        }
+        return aggregates;
+    }
+
+    /**
+     * Adds the ticket to the aggregates of its route.
+     *
+     * @param ticket the ticket to add
+     */
+    public void add(TicketData ticket) {
+        LiveRouteStatistics statistics = routes.computeIfAbsent(RouteKey.of(ticket),
+                route -> new LiveRouteStatistics(route.originName(), route.destinationName()));
+        synchronized (statistics) {
+            statistics.add(ticket);
+        }
+    }
+
+    /**
+     * Removes the ticket from the aggregates of its route.
+     *
+     * @param ticket the ticket to remove
+     * @return {@code true} if the ticket was removed, {@code false} if no matching ticket was present
+     */
+    public boolean remove(TicketData ticket) {
+        LiveRouteStatistics statistics = routes.get(RouteKey.of(ticket));
+        if (statistics == null) {
+            return false;
+        }
+        synchronized (statistics) {
+            return statistics.remove(ticket);
+        }
+    }
+
+    /**
+     * Applies a change to the aggregates.
+     *
+     * @param delta the change to apply
+     * @return {@code true} if the aggregates changed, {@code false} if the ticket to remove was not present
+     */
+    public boolean apply(TicketDelta delta) {
+        if (delta.op() == TicketDelta.Operation.ADD) {
+            add(delta.ticket());
+            return true;
+        }
+        return remove(delta.ticket());
+    }
+
+    /**
+     * Returns the current report of the specified route.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     * @return the report of the route, which is empty if the route has no tickets
+     */
+    public RouteReport report(String origin, String destination) {
+        LiveRouteStatistics statistics = routes.get(new RouteKey(origin, destination));
+        if (statistics == null) {
+            return new LiveRouteStatistics(origin, destination).toReport();
+        }
+        synchronized (statistics) {
+            return statistics.toReport();
+        }
+    }
+}
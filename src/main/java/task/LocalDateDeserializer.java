@@ -15,9 +15,17 @@ import java.time.format.DateTimeFormatter;
  * This class is used by Gson to deserialize JSON date strings into {@link LocalDate} objects
  * using the format "dd.MM.yy".
  * </p>
+ * <p>
+ * Well-formed dates are parsed by a hand-rolled fixed-format parser and looked up in a bounded cache holding
+ * one instance per possible date of the format, so the same {@link LocalDate} object is reused for every ticket
+ * with that date. Only the first occurrence of a date, and anything the fast path does not recognize, is handed
+ * to the {@link DateTimeFormatter}, which keeps the results and errors identical to the pattern-based parsing.
+ * </p>
  */
 public class LocalDateDeserializer implements JsonDeserializer<LocalDate> {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy");
+    private static final int BASE_YEAR = 2000;
+    private static final LocalDate[] cache = new LocalDate[100 * 12 * 31];
 
     /**
      * Deserializes a JSON element into a {@link LocalDate} object.
@@ -30,6 +38,41 @@ public class LocalDateDeserializer implements JsonDeserializer<LocalDate> {
      */
     @Override
     public LocalDate deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-        return LocalDate.parse(jsonElement.getAsJsonPrimitive().getAsString(), formatter);
+        return parse(jsonElement.getAsJsonPrimitive().getAsString());
+    }
+
+    /**
+     * Parses a date in the format "dd.MM.yy".
+     *
+     * @param text the text to parse
+     * @return the parsed date, possibly a cached instance
+     * @throws java.time.format.DateTimeParseException if the text cannot be parsed
+     */
+    static LocalDate parse(String text) {
+        if (text.length() == 8 && text.charAt(2) == '.' && text.charAt(5) == '.') {
+            int day = twoDigits(text, 0);
+            int month = twoDigits(text, 3);
+            int year = twoDigits(text, 6);
+            if (day >= 1 && day <= 31 && month >= 1 && month <= 12 && year >= 0) {
+                int index = (year * 12 + month - 1) * 31 + day - 1;
+                LocalDate date = cache[index];
+                if (date == null) {
+                    // LocalDate is immutable, so publishing it through a data race is safe.
+                    date = LocalDate.parse(text, formatter);
+                    cache[index] = date;
+                }
+                return date;
+            }
+        }
+        return LocalDate.parse(text, formatter);
+    }
+
+    private static int twoDigits(String text, int index) {
+        int tens = text.charAt(index) - '0';
+        int units = text.charAt(index + 1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -1;
+        }
+        return tens * 10 + units;
     }
 }
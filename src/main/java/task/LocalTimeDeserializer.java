@@ -15,9 +15,15 @@ import java.time.format.DateTimeFormatter;
  * This class is used by Gson to deserialize JSON time strings into {@link LocalTime} objects
  * using the format "HH:mm" and optionally "H:mm".
  * </p>
+ * <p>
+ * Well-formed times are parsed by a hand-rolled fixed-format parser and looked up in a cache holding one
+ * instance per minute of the day, so at most 1,440 {@link LocalTime} objects are ever created. Anything the
+ * fast path does not recognize is handed to the {@link DateTimeFormatter}.
+ * </p>
  */
 public class LocalTimeDeserializer implements JsonDeserializer<LocalTime> {
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H[H]:mm");
+    private static final LocalTime[] cache = new LocalTime[24 * 60];
 
     /**
      * Deserializes a JSON element into a {@link LocalTime} object.
@@ -30,6 +36,47 @@ public class LocalTimeDeserializer implements JsonDeserializer<LocalTime> {
      */
     @Override
     public LocalTime deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-        return LocalTime.parse(jsonElement.getAsJsonPrimitive().getAsString(), formatter);
+        return parse(jsonElement.getAsJsonPrimitive().getAsString());
+    }
+
+    /**
+     * Parses a time in the format "H[H]:mm".
+     *
+     * @param text the text to parse
+     * @return the parsed time, possibly a cached instance
+     * @throws java.time.format.DateTimeParseException if the text cannot be parsed
+     */
+    static LocalTime parse(String text) {
+        int length = text.length();
+        int separator = length - 3;
+        if ((separator == 1 || separator == 2) && text.charAt(separator) == ':') {
+            int hour = separator == 1 ? digit(text, 0) : twoDigits(text, 0);
+            int minute = twoDigits(text, separator + 1);
+            if (hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59) {
+                int index = hour * 60 + minute;
+                LocalTime time = cache[index];
+                if (time == null) {
+                    // LocalTime is immutable, so publishing it through a data race is safe.
+                    time = LocalTime.of(hour, minute);
+                    cache[index] = time;
+                }
+                return time;
+            }
+        }
+        return LocalTime.parse(text, formatter);
+    }
+
+    private static int digit(String text, int index) {
+        int digit = text.charAt(index) - '0';
+        return digit >= 0 && digit <= 9 ? digit : -1;
+    }
+
+    private static int twoDigits(String text, int index) {
+        int tens = digit(text, index);
+        int units = digit(text, index + 1);
+        if (tens < 0 || units < 0) {
+            return -1;
+        }
+        return tens * 10 + units;
     }
 }
@@ -1,41 +1,517 @@
 package task;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 
 /**
  * The main class of the application that analyzes flight ticket data.
  * <p>
- * This class reads ticket data from a JSON file, calculates minimum flight durations, as well as
- * the difference between average and median ticket prices for flights between specified cities,
- * and prints the results to the console.
+ * This class streams ticket data from a JSON file, calculates minimum flight durations, as well as
+ * the difference between average and median ticket prices for flights between specified cities
+ * in a single pass, and prints the results to the console.
  * </p>
  */
 public class Main {
+    private static final String DEFAULT_FILE = "tickets.json";
+    private static final String ALL_ROUTES_OPTION = "--all-routes";
+    private static final String MAPPED_OPTION = "--mapped";
+    private static final String SNAPSHOT_OPTION = "--snapshot";
+    private static final String SERVE_OPTION = "--serve";
+    private static final String WATCH_OPTION = "--watch";
+    private static final String UTC_OPTION = "--utc";
+    private static final String METRICS_OPTION = "--metrics";
+    private static final String PRICES_OPTION = "--prices";
+    private static final String MEDIAN_MEMORY_OPTION = "--median-memory";
+    private static final String PRECOMPUTE_OPTION = "--precompute";
+    static final String OPTION_PREFIX = "--";
+    private static final String USAGE = "Usage: task.Main [--all-routes | --mapped | --utc | --precompute"
+            + " | --snapshot <output> | --serve <port> | --watch <log> | --prices <width>"
+            + " | --median-memory <megabytes>] [--metrics <log|jfr>] [file]";
+    static final int USAGE_EXIT_STATUS = 2;
+    private static final long MAX_PORT = 65535;
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final String LOG_METRICS = "log";
+    private static final String JFR_METRICS = "jfr";
+    private static final String CITY1 = "Владивосток";
+    private static final String CITY2 = "Тель-Авив";
+
     /**
      * The entry point of the application.
      * <p>
-     * This method reads ticket data from a JSON file, processes it to calculate flight durations
-     * and price differences, and outputs the results to the console.
+     * This method streams ticket data from a JSON file, processes it to calculate flight durations
+     * and price differences, and outputs the results to the console. With the {@code --all-routes} option
+     * the results are printed for every route in the file instead of the default one. With the {@code --mapped}
+     * option the file is parsed by {@link MappedTicketReader} into a columnar {@link TicketStore}.
+     * With {@code --snapshot <output>} the JSON file is converted into a binary {@link TicketSnapshot} instead;
+     * a snapshot given as the input file is detected automatically and loaded without parsing.
+     * With {@code --serve <port>} the tickets are loaded once and route queries are answered over HTTP by a
+     * {@link TicketQueryServer} until the process is stopped. With {@code --watch <log>} the tickets are loaded into
+     * {@link LiveTicketAggregates} and the results for the default route are printed again after every batch of
+     * changes appended to the {@link TicketDeltaLog}. With {@code --utc} the minimum flight durations of the default
+     * route are computed in UTC from the time zones of the bundled {@link AirportZones} table.
+     * With {@code --metrics log} the reader and analyzer are measured by a {@link MetricsRegistry} whose report is
+     * printed to the standard error stream when the process exits; with {@code --metrics jfr} the measurements are
+     * emitted as Java Flight Recorder events by a {@link JfrMetricsSink} instead. With {@code --prices <width>} the
+     * price distribution of every carrier of the default route is printed, with histogram buckets of the given width.
+     * With {@code --median-memory <megabytes>} the file is streamed and the exact median price of the default route
+     * is computed by an {@link ExternalMedian} that keeps at most the given amount of prices in memory.
+     * With {@code --precompute} the reports of every route are computed once and written to a {@link RouteAggregates}
+     * sidecar file next to the tickets; as long as the tickets file keeps the content the sidecar was computed from,
+     * the default and {@code --all-routes} runs print the precomputed results without parsing the tickets.
+     * Unknown options, missing or malformed option values, extra arguments and combinations of the options above,
+     * apart from {@code --metrics}, are rejected with a usage message.
      * </p>
      *
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments: at most one of the {@code --all-routes}, {@code --mapped}, {@code --utc},
+     *             {@code --precompute}, {@code --snapshot <output>}, {@code --serve <port>}, {@code --watch <log>},
+     *             {@code --prices <width>} and {@code --median-memory <megabytes>} options, an optional
+     *             {@code --metrics <log|jfr>} option and an optional path to the JSON or snapshot file, which defaults
+     *             to {@code tickets.json}
      */
     public static void main(String[] args) {
-        List<TicketData> tickets = TicketJsonReader.readTickets("tickets.json");
+        boolean allRoutes = false;
+        boolean mapped = false;
+        boolean utc = false;
+        boolean precompute = false;
+        String snapshotPath = null;
+        int port = -1;
+        String deltaLogPath = null;
+        String metrics = null;
+        double bucketWidth = 0;
+        long medianMemory = 0;
+        String filepath = null;
+        String mode = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals(ALL_ROUTES_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    allRoutes = true;
+                } else if (arg.equals(MAPPED_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    mapped = true;
+                } else if (arg.equals(UTC_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    utc = true;
+                } else if (arg.equals(PRECOMPUTE_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    precompute = true;
+                } else if (arg.equals(SNAPSHOT_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    snapshotPath = optionValue(args, ++i, arg);
+                } else if (arg.equals(SERVE_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    port = (int) longOption(args, ++i, arg, 0, MAX_PORT);
+                } else if (arg.equals(WATCH_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    deltaLogPath = optionValue(args, ++i, arg);
+                } else if (arg.equals(PRICES_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    bucketWidth = PriceDistribution.requireBucketWidth(doubleOption(args, ++i, arg));
+                } else if (arg.equals(MEDIAN_MEMORY_OPTION)) {
+                    mode = exclusiveMode(mode, arg);
+                    medianMemory = longOption(args, ++i, arg, 1, Long.MAX_VALUE / BYTES_PER_MEGABYTE) * BYTES_PER_MEGABYTE;
+                } else if (arg.equals(METRICS_OPTION)) {
+                    metrics = optionValue(args, ++i, arg);
+                    if (!metrics.equals(LOG_METRICS) && !metrics.equals(JFR_METRICS)) {
+                        throw new IllegalArgumentException("Invalid value for " + arg + ": " + metrics);
+                    }
+                } else if (arg.startsWith(OPTION_PREFIX)) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                } else if (filepath != null) {
+                    throw new IllegalArgumentException("Unexpected argument: " + arg);
+                } else {
+                    filepath = arg;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(USAGE_EXIT_STATUS);
+            return;
+        }
+        if (filepath == null) {
+            filepath = DEFAULT_FILE;
+        }
+
+        if (metrics != null) {
+            installMetrics(metrics);
+        }
+
+        if (port >= 0) {
+            serve(filepath, port);
+        } else if (deltaLogPath != null) {
+            watch(filepath, deltaLogPath);
+        } else if (snapshotPath != null) {
+            writeSnapshot(filepath, snapshotPath);
+        } else if (precompute) {
+            writeAggregates(filepath);
+        } else if (medianMemory > 0) {
+            printDefaultRouteWithExternalMedian(filepath, medianMemory);
+        } else if (bucketWidth > 0) {
+            printPriceDistributions(filepath, bucketWidth);
+        } else if (allRoutes) {
+            printAllRoutes(filepath);
+        } else if (utc) {
+            printDefaultRouteInUtc(filepath);
+        } else if (TicketSnapshot.isSnapshot(filepath)) {
+            printDefaultRoute(TicketSnapshot.read(filepath));
+        } else if (mapped) {
+            printDefaultRoute(MappedTicketReader.readTicketStore(filepath));
+        } else {
+            RouteAggregates aggregates = RouteAggregates.readIfCurrent(filepath);
+            if (aggregates != null) {
+                printRouteReport(aggregates.report(CITY1, CITY2));
+            } else {
+                printDefaultRoute(filepath);
+            }
+        }
+    }
+
+    /**
+     * Selects the mode of the run, which is set by at most one of the options that choose what is computed.
+     *
+     * @param current the option that selected the mode so far, or {@code null} if none did
+     * @param option the option that selects a mode
+     * @return the option
+     * @throws IllegalArgumentException if another or the same option already selected the mode
+     */
+    private static String exclusiveMode(String current, String option) {
+        if (current != null) {
+            throw new IllegalArgumentException(current.equals(option) ? "Option given twice: " + option
+                    : "Options " + current + " and " + option + " cannot be combined");
+        }
+        return option;
+    }
+
+    /**
+     * Returns the value of a command-line option.
+     *
+     * @param args the command-line arguments
+     * @param index the index of the value
+     * @param option the option the value belongs to
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing
+     */
+    static String optionValue(String[] args, int index, String option) {
+        if (index >= args.length || args[index].startsWith(OPTION_PREFIX)) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Returns the integer value of a command-line option.
+     *
+     * @param args the command-line arguments
+     * @param index the index of the value
+     * @param option the option the value belongs to
+     * @param min the smallest accepted value
+     * @param max the largest accepted value
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing, not an integer or out of range
+     */
+    static long longOption(String[] args, int index, String option, long min, long max) {
+        String value = optionValue(args, index, option);
+        try {
+            long result = Long.parseLong(value);
+            if (result >= min && result <= max) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below together with out-of-range values.
+        }
+        throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+    }
+
+    /**
+     * Returns the decimal value of a command-line option.
+     *
+     * @param args the command-line arguments
+     * @param index the index of the value
+     * @param option the option the value belongs to
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing or not a number
+     */
+    static double doubleOption(String[] args, int index, String option) {
+        String value = optionValue(args, index, option);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+    }
+
+    /**
+     * Installs the metrics sink selected on the command line.
+     *
+     * @param kind {@code jfr} for Java Flight Recorder events or {@code log} for a report printed on exit
+     */
+    private static void installMetrics(String kind) {
+        if (kind.equals(JFR_METRICS)) {
+            Metrics.setSink(new JfrMetricsSink());
+            return;
+        }
+        MetricsRegistry registry = new MetricsRegistry();
+        Metrics.setSink(registry);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(registry.report())));
+    }
+
+    /**
+     * Streams the tickets from the file and prints the results for the default route.
+     * Uncompressed NDJSON files are parsed in parallel chunks.
+     *
+     * @param filepath the path to the JSON or NDJSON file
+     */
+    private static void printDefaultRoute(String filepath) {
+        RouteStatistics statistics = TicketJsonReader.collectTickets(filepath,
+                Collector.of(() -> new RouteStatistics(CITY1, CITY2), RouteStatistics::accept, RouteStatistics::combine));
+        if (statistics == null) {
+            System.out.println("No tickets could be read.");
+        } else {
+            printRouteStatistics(statistics);
+        }
+    }
+
+    /**
+     * Prints the results for the default route from a columnar ticket store.
+     *
+     * @param store the ticket store, or {@code null} if it could not be read
+     */
+    private static void printDefaultRoute(TicketStore store) {
+        if (store == null) {
+            System.out.println("No tickets could be read.");
+        } else {
+            printFlightDurationResult(TicketDataAnalyzer.calculateMinFlightsTimes(store, CITY1, CITY2), CITY1, CITY2);
+            printDifferenceResult(TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(store, CITY1, CITY2), CITY1, CITY2);
+        }
+    }
+
+    /**
+     * Prints the results for the default route with flight durations computed in UTC.
+     *
+     * @param filepath the path to the JSON or snapshot file
+     */
+    private static void printDefaultRouteInUtc(String filepath) {
+        List<TicketData> tickets = readTicketList(filepath);
         if (tickets == null) {
             System.out.println("No tickets could be read.");
         } else {
-            String city1 = "Владивосток";
-            String city2 = "Тель-Авив";
+            printFlightDurationResult(TicketDataAnalyzer.calculateMinFlightsTimes(tickets, CITY1, CITY2,
+                    AirportZones.bundled()), CITY1, CITY2);
+            printDifferenceResult(TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, CITY1, CITY2),
+                    CITY1, CITY2);
+        }
+    }
+
+    /**
+     * Converts a JSON file into a binary snapshot.
+     *
+     * @param filepath the path to the JSON file
+     * @param snapshotPath the path of the snapshot file to write
+     */
+    private static void writeSnapshot(String filepath, String snapshotPath) {
+        TicketStore store = MappedTicketReader.readTicketStore(filepath);
+        if (store == null) {
+            System.out.println("No tickets could be read.");
+            return;
+        }
+        try {
+            TicketSnapshot.write(store, snapshotPath);
+            System.out.println("Snapshot of " + store.size() + " tickets written to " + snapshotPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Computes the reports of every route and writes them to the sidecar file of the tickets file.
+     *
+     * @param filepath the path to the JSON or snapshot file
+     */
+    private static void writeAggregates(String filepath) {
+        List<TicketData> tickets = readTicketList(filepath);
+        if (tickets == null) {
+            System.out.println("No tickets could be read.");
+            return;
+        }
+        try {
+            RouteAggregates.compute(tickets).write(filepath);
+            System.out.println("Aggregates of " + tickets.size() + " tickets written to " + RouteAggregates.sidecarPath(filepath));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the tickets and starts a query server that keeps running until the process is stopped.
+     *
+     * @param filepath the path to the JSON or snapshot file, which is read again on every reload
+     * @param port the port to listen on
+     */
+    private static void serve(String filepath, int port) {
+        TicketQueryServer server = new TicketQueryServer(() -> readTicketList(filepath), TicketQueryServer.DEFAULT_CACHE_SIZE);
+        int count = server.reload();
+        if (count < 0) {
+            System.out.println("No tickets could be read.");
+            return;
+        }
+        try {
+            server.start(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            System.out.println("Serving " + count + " tickets on port " + server.getPort());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            Map<String, Duration> flightDurations = TicketDataAnalyzer.calculateMinFlightsTimes(tickets, city1, city2);
-            double difference = TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, city1, city2);
+    /**
+     * Loads the tickets into live aggregates and follows a delta log, printing the default route after every change.
+     *
+     * @param filepath the path to the JSON or snapshot file
+     * @param deltaLogPath the path to the NDJSON log of ticket changes
+     */
+    private static void watch(String filepath, String deltaLogPath) {
+        List<TicketData> tickets = readTicketList(filepath);
+        if (tickets == null) {
+            System.out.println("No tickets could be read.");
+            return;
+        }
+        LiveTicketAggregates aggregates = LiveTicketAggregates.of(tickets);
+        Runnable print = () -> printRouteReport(aggregates.report(CITY1, CITY2));
+        print.run();
+        try (TicketDeltaLog log = new TicketDeltaLog(Path.of(deltaLogPath), aggregates::apply)) {
+            log.follow(print);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            printFlightDurationResult(flightDurations, city1, city2);
-            printDifferenceResult(difference, city1, city2);
+    /**
+     * Streams the tickets from the file and prints the results for the default route, computing the exact median
+     * price within a memory budget.
+     *
+     * @param filepath the path to the JSON or NDJSON file
+     * @param memoryBytes the memory budget of the buffered prices in bytes
+     */
+    private static void printDefaultRouteWithExternalMedian(String filepath, long memoryBytes) {
+        RouteReport report;
+        try (Stream<TicketData> tickets = TicketJsonReader.streamTicketsIfPresent(filepath)) {
+            if (tickets == null) {
+                System.out.println("No tickets could be read.");
+                return;
+            }
+            report = TicketDataAnalyzer.calculateRouteReport(tickets::iterator, CITY1, CITY2, memoryBytes);
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+            System.out.println("No tickets could be read.");
+            return;
         }
+        printRouteReport(report);
+    }
+
+    /**
+     * Streams the tickets from the file and prints the price distribution of every carrier of the default route.
+     *
+     * @param filepath the path to the JSON or NDJSON file
+     * @param bucketWidth the width of the histogram buckets
+     */
+    private static void printPriceDistributions(String filepath, double bucketWidth) {
+        RoutePriceDistributions distributions = TicketJsonReader.collectTickets(filepath, Collector.of(
+                () -> new RoutePriceDistributions(bucketWidth), RoutePriceDistributions::accept,
+                RoutePriceDistributions::combine));
+        if (distributions == null) {
+            System.out.println("No tickets could be read.");
+            return;
+        }
+        System.out.println("Распределение цен для полета между городами " + CITY1 + " и " + CITY2 + ": ");
+        for (Map.Entry<String, PriceDistribution> entry : distributions.carriers(CITY1, CITY2).entrySet()) {
+            PriceDistribution distribution = entry.getValue();
+            System.out.println(entry.getKey() + " - билетов: " + distribution.getCount()
+                    + ", мин: " + distribution.getMin() + ", макс: " + distribution.getMax()
+                    + ", среднее: " + distribution.getMean() + ", ст. отклонение: " + distribution.getStandardDeviation()
+                    + ", p50: " + distribution.getPercentile(50) + ", p90: " + distribution.getPercentile(90)
+                    + ", p99: " + distribution.getPercentile(99));
+            for (Map.Entry<Double, Long> bucket : distribution.getHistogram().entrySet()) {
+                System.out.println("    " + bucket.getKey() + " - " + (bucket.getKey() + bucketWidth) + ": " + bucket.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads the tickets from the file and prints the results for every route present in it, or prints the
+     * precomputed results if the file has a current sidecar.
+     *
+     * @param filepath the path to the JSON file
+     */
+    private static void printAllRoutes(String filepath) {
+        RouteAggregates aggregates = RouteAggregates.readIfCurrent(filepath);
+        if (aggregates != null) {
+            for (RouteReport report : aggregates.reports()) {
+                printRouteReport(report);
+            }
+            return;
+        }
+        List<TicketData> tickets = readTicketList(filepath);
+        if (tickets == null) {
+            System.out.println("No tickets could be read.");
+        } else {
+            for (RouteStatistics statistics : TicketDataAnalyzer.calculateAllRouteStatistics(tickets).values()) {
+                printRouteStatistics(statistics);
+            }
+        }
+    }
+
+    /**
+     * Reads all tickets of a JSON or snapshot file into a list.
+     *
+     * @param filepath the path to the JSON or snapshot file
+     * @return the list of tickets, or {@code null} if they could not be read
+     */
+    private static List<TicketData> readTicketList(String filepath) {
+        if (!TicketSnapshot.isSnapshot(filepath)) {
+            return TicketJsonReader.readTickets(filepath);
+        }
+        TicketStore store = TicketSnapshot.read(filepath);
+        if (store == null) {
+            return null;
+        }
+        List<TicketData> tickets = new ArrayList<>(store.size());
+        for (int i = 0; i < store.size(); i++) {
+            tickets.add(store.get(i));
+        }
+        return tickets;
+    }
+
+    /**
+     * Prints the minimum flight durations and the price difference of a route.
+     *
+     * @param statistics the statistics of the route
+     */
+    private static void printRouteStatistics(RouteStatistics statistics) {
+        printFlightDurationResult(statistics.getMinFlightsTimes(), statistics.getOrigin(), statistics.getDestination());
+        printDifferenceResult(statistics.getAverageAndMedianPriceDifference(), statistics.getOrigin(), statistics.getDestination());
+    }
+
+    /**
+     * Prints the minimum flight durations and the price difference of a route report.
+     *
+     * @param report the report of the route
+     */
+    private static void printRouteReport(RouteReport report) {
+        String origin = report.route().originName();
+        String destination = report.route().destinationName();
+        printFlightDurationResult(report.minFlightTimes(), origin, destination);
+        printDifferenceResult(report.averageAndMedianPriceDifference(), origin, destination);
     }
 
     /**
@@ -0,0 +1,643 @@
+package task;
+
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader that parses ticket JSON files directly from memory-mapped UTF-8 bytes into a {@link TicketStore}.
+ * <p>
+ * Unlike {@link TicketJsonReader}, this reader does not decode the file into characters and does not create
+ * {@link TicketData} objects. The file is mapped with {@link FileChannel#map} in windows, the known ticket schema is
+ * tokenized in place, repeated strings are resolved to symbol ids by comparing raw bytes, and dates such as
+ * {@code "12.05.18"} and times such as {@code "16:20"} are decoded straight into epoch minutes, bypassing
+ * {@link LocalDateDeserializer} and {@link LocalTimeDeserializer}. A leading UTF-8 byte order mark is skipped.
+ * </p>
+ * <p>
+ * The string, date and time fields of a ticket are required; missing {@code stops} and {@code price} default to
+ * zero, numbers given as strings are accepted and {@code null} numbers are rejected, as with Gson. Unknown properties
+ * are skipped. Dates follow the same rules as {@link LocalDateDeserializer}: two-digit years belong to 2000-2099 and
+ * days past the end of the month are clamped to the last day. A ticket that does not fit into the mapped window is
+ * read again from its start with a larger window.
+ * </p>
+ */
+public class MappedTicketReader {
+    private static final int DEFAULT_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Reads the tickets of the specified JSON file into a new {@link TicketStore}.
+     *
+     * @param filepath the path to the JSON file
+     * @return a store with the tickets in file order, or {@code null} if an I/O error occurs or if the file does
+     * not contain any tickets
+     * @throws JsonParseException if the file is not a valid ticket document
+     */
+    public static TicketStore readTicketStore(String filepath) {
+        return readTicketStore(filepath, DEFAULT_WINDOW_SIZE);
+    }
+
+    static TicketStore readTicketStore(String filepath, int windowSize) {
+        try (FileChannel channel = FileChannel.open(Path.of(filepath), StandardOpenOption.READ)) {
+            return new Parser(channel, windowSize).parseDocument();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Converts a proleptic Gregorian date to the number of days since 1970-01-01.
+     */
+    static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Returns the number of days in the month of the specified year.
+     */
+    static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Streaming tokenizer over a memory-mapped file.
+     */
+    private static final class Parser {
+        private static final int REMAP_MARGIN = 1 << 20;
+        private static final int MINUTES_PER_DAY = 24 * 60;
+        private static final long MAX_EXACT_MANTISSA = 1L << 53;
+        private static final double[] POWERS_OF_TEN = {
+                1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+                1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+
+        private static final byte[] TICKETS = ascii("tickets");
+        private static final byte[] ORIGIN = ascii("origin");
+        private static final byte[] ORIGIN_NAME = ascii("origin_name");
+        private static final byte[] DESTINATION = ascii("destination");
+        private static final byte[] DESTINATION_NAME = ascii("destination_name");
+        private static final byte[] DEPARTURE_DATE = ascii("departure_date");
+        private static final byte[] DEPARTURE_TIME = ascii("departure_time");
+        private static final byte[] ARRIVAL_DATE = ascii("arrival_date");
+        private static final byte[] ARRIVAL_TIME = ascii("arrival_time");
+        private static final byte[] CARRIER = ascii("carrier");
+        private static final byte[] STOPS = ascii("stops");
+        private static final byte[] PRICE = ascii("price");
+        private static final byte[] NULL = ascii("null");
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int remapMargin;
+        private int windowSize;
+        private final TicketStore store = new TicketStore();
+        private final ByteSymbolCache symbolCache = new ByteSymbolCache(store.symbols());
+
+        private MappedByteBuffer buffer;
+        private long base;
+        private int limit;
+        private int pos;
+
+        // Position and length of the last string token read with readRawString.
+        private int tokenStart;
+        private int tokenLength;
+        private boolean tokenEscaped;
+
+        Parser(FileChannel channel, int windowSize) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+            this.windowSize = windowSize;
+            this.remapMargin = Math.min(REMAP_MARGIN, windowSize / 2);
+            map(0);
+        }
+
+        TicketStore parseDocument() throws IOException {
+            if (limit >= 3 && byteAt(0) == (byte) 0xEF && byteAt(1) == (byte) 0xBB && byteAt(2) == (byte) 0xBF) {
+                pos = 3;
+            }
+            skipWhitespace();
+            if (pos == limit) {
+                return null;
+            }
+            expect('{');
+            boolean hasTickets = false;
+            if (peekSkippingWhitespace() != '}') {
+                do {
+                    ensureWindow();
+                    readRawString();
+                    boolean isTickets = !tokenEscaped && matchesToken(TICKETS);
+                    expect(':');
+                    if (isTickets && peekSkippingWhitespace() == '[') {
+                        parseTickets();
+                        hasTickets = true;
+                    } else {
+                        skipValue();
+                    }
+                } while (consumeComma());
+            }
+            expect('}');
+            return hasTickets ? store : null;
+        }
+
+        private void parseTickets() throws IOException {
+            expect('[');
+            if (peekSkippingWhitespace() == ']') {
+                pos++;
+                return;
+            }
+            do {
+                ensureWindow();
+                parseTicketGrowingWindow();
+            } while (consumeComma());
+            expect(']');
+        }
+
+        /**
+         * Parses a ticket, doubling the window and starting over from the ticket while it does not fit. The store
+         * is only changed once the whole ticket has been read, so a partial attempt leaves nothing behind.
+         */
+        private void parseTicketGrowingWindow() throws IOException {
+            long ticketOffset = base + pos;
+            while (true) {
+                try {
+                    parseTicket();
+                    return;
+                } catch (WindowExhaustedException e) {
+                    if (windowSize >= DEFAULT_WINDOW_SIZE) {
+                        throw e;
+                    }
+                    windowSize = (int) Math.min(DEFAULT_WINDOW_SIZE, 2L * windowSize);
+                    map(ticketOffset);
+                }
+            }
+        }
+
+        private void parseTicket() {
+            int origin = -1;
+            int originName = -1;
+            int destination = -1;
+            int destinationName = -1;
+            int carrier = -1;
+            long departureDay = Long.MIN_VALUE;
+            long arrivalDay = Long.MIN_VALUE;
+            int departureMinute = -1;
+            int arrivalMinute = -1;
+            int stops = 0;
+            double price = 0;
+
+            expect('{');
+            if (peekSkippingWhitespace() != '}') {
+                do {
+                    readRawString();
+                    boolean plain = !tokenEscaped;
+                    int keyStart = tokenStart;
+                    int keyLength = tokenLength;
+                    expect(':');
+                    if (plain && matches(keyStart, keyLength, ORIGIN)) {
+                        origin = readSymbol();
+                    } else if (plain && matches(keyStart, keyLength, ORIGIN_NAME)) {
+                        originName = readSymbol();
+                    } else if (plain && matches(keyStart, keyLength, DESTINATION)) {
+                        destination = readSymbol();
+                    } else if (plain && matches(keyStart, keyLength, DESTINATION_NAME)) {
+                        destinationName = readSymbol();
+                    } else if (plain && matches(keyStart, keyLength, CARRIER)) {
+                        carrier = readSymbol();
+                    } else if (plain && matches(keyStart, keyLength, DEPARTURE_DATE)) {
+                        departureDay = readDate();
+                    } else if (plain && matches(keyStart, keyLength, ARRIVAL_DATE)) {
+                        arrivalDay = readDate();
+                    } else if (plain && matches(keyStart, keyLength, DEPARTURE_TIME)) {
+                        departureMinute = readTime();
+                    } else if (plain && matches(keyStart, keyLength, ARRIVAL_TIME)) {
+                        arrivalMinute = readTime();
+                    } else if (plain && matches(keyStart, keyLength, STOPS)) {
+                        stops = readInt();
+                    } else if (plain && matches(keyStart, keyLength, PRICE)) {
+                        price = readDouble();
+                    } else {
+                        skipValue();
+                    }
+                } while (consumeComma());
+            }
+            expect('}');
+
+            if (origin < 0 || originName < 0 || destination < 0 || destinationName < 0 || carrier < 0
+                    || departureDay == Long.MIN_VALUE || arrivalDay == Long.MIN_VALUE
+                    || departureMinute < 0 || arrivalMinute < 0) {
+                throw error("Ticket is missing a required field");
+            }
+            store.add(origin, originName, destination, destinationName,
+                    departureDay * MINUTES_PER_DAY + departureMinute,
+                    arrivalDay * MINUTES_PER_DAY + arrivalMinute,
+                    carrier, stops, price);
+        }
+
+        private int readSymbol() {
+            readRawString();
+            if (tokenEscaped) {
+                return store.symbols().intern(decodeEscaped(tokenStart, tokenLength));
+            }
+            return symbolCache.intern(buffer, tokenStart, tokenLength);
+        }
+
+        private long readDate() {
+            readRawString();
+            int start = tokenStart;
+            if (tokenEscaped || tokenLength != 8 || byteAt(start + 2) != '.' || byteAt(start + 5) != '.') {
+                throw error("Invalid date");
+            }
+            int day = twoDigits(start);
+            int month = twoDigits(start + 3);
+            int year = 2000 + twoDigits(start + 6);
+            if (month < 1 || month > 12 || day < 1 || day > 31) {
+                throw error("Invalid date");
+            }
+            return epochDay(year, month, Math.min(day, lengthOfMonth(year, month)));
+        }
+
+        private int readTime() {
+            readRawString();
+            int start = tokenStart;
+            int hourDigits = tokenLength - 3;
+            if (tokenEscaped || (hourDigits != 1 && hourDigits != 2) || byteAt(start + hourDigits) != ':') {
+                throw error("Invalid time");
+            }
+            int hour = hourDigits == 1 ? digit(start) : twoDigits(start);
+            int minute = twoDigits(start + hourDigits + 1);
+            if (hour == 24 && minute == 0) {
+                hour = 0;
+            }
+            if (hour > 23 || minute > 59) {
+                throw error("Invalid time");
+            }
+            return hour * 60 + minute;
+        }
+
+        private int readInt() {
+            double value = readDouble();
+            if (value != (int) value) {
+                throw error("Expected an int");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Reads a number or a number given as a string, which are the values Gson accepts for primitive fields.
+         */
+        private double readDouble() {
+            byte b = peekSkippingWhitespace();
+            if (b == 'n' && matches(pos, Math.min(NULL.length, limit - pos), NULL)) {
+                throw error("null is not allowed as a number");
+            }
+            if (b == '"') {
+                readRawString();
+                String text = tokenEscaped
+                        ? decodeEscaped(tokenStart, tokenLength)
+                        : new String(bytes(tokenStart, tokenLength), StandardCharsets.UTF_8);
+                try {
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    throw error("Expected a number");
+                }
+            }
+            return readNumber();
+        }
+
+        private double readNumber() {
+            int start = pos;
+            boolean negative = false;
+            if (byteAt(pos) == '-') {
+                negative = true;
+                pos++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = 0;
+            boolean exact = true;
+            while (pos < limit && isDigit(byteAt(pos))) {
+                mantissa = mantissa * 10 + (byteAt(pos) - '0');
+                digits++;
+                pos++;
+            }
+            if (pos < limit && byteAt(pos) == '.') {
+                pos++;
+                while (pos < limit && isDigit(byteAt(pos))) {
+                    mantissa = mantissa * 10 + (byteAt(pos) - '0');
+                    digits++;
+                    fractionDigits++;
+                    pos++;
+                }
+            }
+            if (pos < limit && (byteAt(pos) == 'e' || byteAt(pos) == 'E')) {
+                exact = false;
+                pos++;
+                if (byteAt(pos) == '+' || byteAt(pos) == '-') {
+                    pos++;
+                }
+                while (pos < limit && isDigit(byteAt(pos))) {
+                    pos++;
+                }
+            }
+            if (digits == 0) {
+                throw error("Expected a number");
+            }
+            if (exact && digits <= 18 && mantissa < MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length) {
+                // Both operands are exact doubles, so a single division is correctly rounded.
+                double value = mantissa / POWERS_OF_TEN[fractionDigits];
+                return negative ? -value : value;
+            }
+            return Double.parseDouble(new String(bytes(start, pos - start), StandardCharsets.US_ASCII));
+        }
+
+        /**
+         * Reads a string token and records its raw position without decoding it.
+         */
+        private void readRawString() {
+            expect('"');
+            tokenStart = pos;
+            tokenEscaped = false;
+            while (true) {
+                byte b = byteAt(pos);
+                if (b == '"') {
+                    break;
+                }
+                if (b == '\\') {
+                    tokenEscaped = true;
+                    pos++;
+                }
+                pos++;
+            }
+            tokenLength = pos - tokenStart;
+            pos++;
+        }
+
+        private void skipValue() {
+            byte b = peekSkippingWhitespace();
+            if (b == '"') {
+                readRawString();
+            } else if (b == '{' || b == '[') {
+                int depth = 0;
+                do {
+                    b = byteAt(pos);
+                    if (b == '"') {
+                        readRawString();
+                        continue;
+                    }
+                    if (b == '{' || b == '[') {
+                        depth++;
+                    } else if (b == '}' || b == ']') {
+                        depth--;
+                    }
+                    pos++;
+                } while (depth > 0);
+            } else {
+                while (pos < limit) {
+                    b = byteAt(pos);
+                    if (b == ',' || b == '}' || b == ']' || isWhitespace(b)) {
+                        break;
+                    }
+                    pos++;
+                }
+            }
+        }
+
+        private boolean consumeComma() {
+            if (peekSkippingWhitespace() == ',') {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (peekSkippingWhitespace() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private byte peekSkippingWhitespace() {
+            skipWhitespace();
+            return byteAt(pos);
+        }
+
+        private void skipWhitespace() {
+            while (pos < limit && isWhitespace(buffer.get(pos))) {
+                pos++;
+            }
+        }
+
+        private byte byteAt(int index) {
+            if (index >= limit) {
+                if (base + limit < fileSize) {
+                    throw new WindowExhaustedException("Ticket does not fit into the mapped window at byte " + (base + pos));
+                }
+                throw error("Unexpected end of input");
+            }
+            return buffer.get(index);
+        }
+
+        private boolean matchesToken(byte[] name) {
+            return matches(tokenStart, tokenLength, name);
+        }
+
+        private boolean matches(int start, int length, byte[] name) {
+            if (length != name.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(start + i) != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int digit(int index) {
+            byte b = byteAt(index);
+            if (!isDigit(b)) {
+                throw error("Expected a digit");
+            }
+            return b - '0';
+        }
+
+        private int twoDigits(int index) {
+            return digit(index) * 10 + digit(index + 1);
+        }
+
+        private byte[] bytes(int start, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(start, bytes);
+            return bytes;
+        }
+
+        private String decodeEscaped(int start, int length) {
+            String raw = new String(bytes(start, length), StandardCharsets.UTF_8);
+            StringBuilder sb = new StringBuilder(raw.length());
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = raw.charAt(++i);
+                switch (escaped) {
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        sb.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    }
+                    default -> sb.append(escaped);
+                }
+            }
+            return sb.toString();
+        }
+
+        /**
+         * Moves the mapped window forward if the current ticket might not fit into the rest of it.
+         */
+        private void ensureWindow() throws IOException {
+            if (limit - pos < remapMargin && base + limit < fileSize) {
+                map(base + pos);
+            }
+        }
+
+        private void map(long offset) throws IOException {
+            long length = Math.min(windowSize, fileSize - offset);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            base = offset;
+            limit = (int) length;
+            pos = 0;
+        }
+
+        private JsonParseException error(String message) {
+            return new JsonParseException(message + " at byte " + (base + pos));
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        private static byte[] ascii(String s) {
+            return s.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Thrown when parsing reaches the end of the mapped window before the end of the file.
+     */
+    private static final class WindowExhaustedException extends JsonParseException {
+        WindowExhaustedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Open-addressing cache from raw UTF-8 string bytes to symbol ids.
+     * <p>
+     * A string is decoded and added to the symbol table only the first time its bytes are seen; afterwards it is
+     * resolved by hashing and comparing bytes in the mapped buffer, without creating a {@link String}.
+     * </p>
+     */
+    private static final class ByteSymbolCache {
+        private final SymbolTable symbols;
+        private byte[][] keys = new byte[64][];
+        private int[] ids = new int[64];
+        private int size;
+
+        ByteSymbolCache(SymbolTable symbols) {
+            this.symbols = symbols;
+        }
+
+        int intern(MappedByteBuffer buffer, int start, int length) {
+            int mask = keys.length - 1;
+            for (int slot = spread(hash(buffer, start, length)) & mask; ; slot = (slot + 1) & mask) {
+                byte[] key = keys[slot];
+                if (key == null) {
+                    byte[] bytes = new byte[length];
+                    buffer.get(start, bytes);
+                    int id = symbols.intern(new String(bytes, StandardCharsets.UTF_8));
+                    insert(bytes, id);
+                    return id;
+                }
+                if (equals(key, buffer, start, length)) {
+                    return ids[slot];
+                }
+            }
+        }
+
+        private void insert(byte[] key, int id) {
+            if (size * 2 >= keys.length) {
+                byte[][] oldKeys = keys;
+                int[] oldIds = ids;
+                keys = new byte[oldKeys.length * 2][];
+                ids = new int[oldIds.length * 2];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != null) {
+                        put(oldKeys[i], oldIds[i]);
+                    }
+                }
+            }
+            put(key, id);
+            size++;
+        }
+
+        private void put(byte[] key, int id) {
+            int mask = keys.length - 1;
+            int slot = spread(Arrays.hashCode(key)) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            ids[slot] = id;
+        }
+
+        private static int hash(MappedByteBuffer buffer, int start, int length) {
+            // Same function as Arrays.hashCode(byte[]) so that rehashing stored keys stays consistent.
+            int hash = 1;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + buffer.get(start + i);
+            }
+            return hash;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean equals(byte[] key, MappedByteBuffer buffer, int start, int length) {
+            if (key.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key[i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package task;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Instrumentation switch of the reader and the analyzer.
+ * <p>
+ * Measurements are disabled until a {@link MetricsSink} is installed with {@link #setSink(MetricsSink)}. While they
+ * are disabled, {@link #start()} reads one volatile field and returns {@code null}, and the other methods return
+ * after a {@code null} check, so instrumented code costs practically nothing. While they are enabled, every
+ * measured operation reads the monotonic clock and the allocation counter of the current thread twice and
+ * passes the differences to the sink.
+ * </p>
+ * <p>
+ * Operations that run on several threads, such as the parallel parsing of NDJSON chunks, report only the
+ * allocations of the calling thread.
+ * </p>
+ */
+public class Metrics {
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+
+    private static volatile MetricsSink sink;
+
+    /**
+     * Installs the sink that receives all further measurements, replacing the current one.
+     *
+     * @param newSink the sink, or {@code null} to disable measurements
+     */
+    public static void setSink(MetricsSink newSink) {
+        sink = newSink;
+    }
+
+    /**
+     * Returns the installed sink.
+     *
+     * @return the sink, or {@code null} if measurements are disabled
+     */
+    public static MetricsSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Starts measuring an operation.
+     *
+     * @return the start of the measurement, or {@code null} if measurements are disabled
+     */
+    static Sample start() {
+        MetricsSink current = sink;
+        if (current == null) {
+            return null;
+        }
+        return new Sample(current, System.nanoTime(), allocatedBytes());
+    }
+
+    /**
+     * Completes the measurement of an operation and passes it to the sink that was installed when it started.
+     *
+     * @param operation the name of the operation
+     * @param sample the start of the measurement, or {@code null} if measurements were disabled
+     * @param tickets the number of tickets read or scanned
+     * @param bytes the number of input bytes read
+     */
+    static void record(String operation, Sample sample, long tickets, long bytes) {
+        if (sample == null) {
+            return;
+        }
+        long duration = System.nanoTime() - sample.startNanos();
+        long allocated = sample.startAllocatedBytes() < 0 ? -1 : allocatedBytes() - sample.startAllocatedBytes();
+        sample.sink().recordOperation(operation, duration, allocated, tickets, bytes);
+    }
+
+    /**
+     * Reports an error of an operation to the installed sink, if any.
+     *
+     * @param operation the name of the operation
+     * @param error the error
+     */
+    static void error(String operation, Throwable error) {
+        MetricsSink current = sink;
+        if (current != null) {
+            current.recordError(operation, error);
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION_COUNTER == null ? -1 : ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean counter
+                && counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+            return counter;
+        }
+        return null;
+    }
+
+    /**
+     * Start of the measurement of one operation.
+     *
+     * @param sink the sink that receives the measurement
+     * @param startNanos the value of {@link System#nanoTime()} at the start
+     * @param startAllocatedBytes the bytes allocated by the thread at the start, or {@code -1} if unknown
+     */
+    record Sample(MetricsSink sink, long startNanos, long startAllocatedBytes) {
+    }
+}
@@ -0,0 +1,148 @@
+package task;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics sink that aggregates the measurements of every operation in memory.
+ * <p>
+ * For each operation name the registry counts calls, errors, tickets, input bytes and allocated bytes with
+ * {@link LongAdder}s and records the latencies in a {@link LatencyHistogram}, so concurrent operations do not
+ * contend on a shared counter. {@link #report()} formats the aggregates, including the parse rate in tickets
+ * and megabytes per second of the operations that read input.
+ * </p>
+ */
+public class MetricsRegistry implements MetricsSink {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double NANOS_PER_MICROSECOND = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordOperation(String operation, long durationNanos, long allocatedBytes, long tickets, long bytes) {
+        operation(operation).record(durationNanos, allocatedBytes, tickets, bytes);
+    }
+
+    @Override
+    public void recordError(String operation, Throwable error) {
+        operation(operation).errors.increment();
+    }
+
+    /**
+     * Returns the aggregates of the operation, creating empty ones if it has not been recorded yet.
+     *
+     * @param operation the name of the operation
+     * @return the aggregates of the operation
+     */
+    public OperationMetrics operation(String operation) {
+        return operations.computeIfAbsent(operation, name -> new OperationMetrics());
+    }
+
+    /**
+     * Returns the aggregates of all recorded operations.
+     *
+     * @return an unmodifiable map from operation names to their aggregates, sorted by name
+     */
+    public Map<String, OperationMetrics> getOperations() {
+        return Collections.unmodifiableMap(new TreeMap<>(operations));
+    }
+
+    /**
+     * Formats the aggregates of all recorded operations, one line per operation, sorted by name.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, OperationMetrics> entry : new TreeMap<>(operations).entrySet()) {
+            OperationMetrics metrics = entry.getValue();
+            LatencyHistogram latency = metrics.getLatency();
+            report.append(String.format(Locale.ROOT, "%s: calls=%d errors=%d tickets=%d bytes=%d allocated=%d"
+                            + " latency(us) p50=%.1f p99=%.1f max=%.1f",
+                    entry.getKey(), latency.getCount(), metrics.getErrors(), metrics.getTickets(), metrics.getBytes(),
+                    metrics.getAllocatedBytes(), latency.getValueAtPercentile(50) / NANOS_PER_MICROSECOND,
+                    latency.getValueAtPercentile(99) / NANOS_PER_MICROSECOND, latency.getMax() / NANOS_PER_MICROSECOND));
+            if (latency.getTotal() > 0 && metrics.getTickets() > 0) {
+                double seconds = latency.getTotal() / NANOS_PER_SECOND;
+                report.append(String.format(Locale.ROOT, " rate=%.0f tickets/s", metrics.getTickets() / seconds));
+                if (metrics.getBytes() > 0) {
+                    report.append(String.format(Locale.ROOT, " %.1f MB/s", metrics.getBytes() / BYTES_PER_MEGABYTE / seconds));
+                }
+            }
+            report.append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Aggregated measurements of one operation.
+     */
+    public static class OperationMetrics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder tickets = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private void record(long durationNanos, long allocated, long ticketCount, long byteCount) {
+            latency.record(durationNanos);
+            tickets.add(ticketCount);
+            bytes.add(byteCount);
+            if (allocated > 0) {
+                allocatedBytes.add(allocated);
+            }
+        }
+
+        /**
+         * Returns the latencies of the completed calls in nanoseconds; their count is the number of calls.
+         *
+         * @return the latency histogram
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Returns the number of failed calls.
+         *
+         * @return the number of errors
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Returns the total number of tickets read or scanned.
+         *
+         * @return the number of tickets
+         */
+        public long getTickets() {
+            return tickets.sum();
+        }
+
+        /**
+         * Returns the total number of input bytes read.
+         *
+         * @return the number of bytes
+         */
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        /**
+         * Returns the total number of bytes allocated by the calling threads, or {@code 0} if the JVM cannot
+         * measure allocations.
+         *
+         * @return the number of allocated bytes
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+    }
+}
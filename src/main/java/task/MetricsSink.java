@@ -0,0 +1,31 @@
+package task;
+
+/**
+ * Destination of the measurements taken by {@link Metrics}.
+ * <p>
+ * Implementations are called on the thread that performed the measured operation, possibly from many threads at
+ * once, so they must be thread-safe and should return quickly. {@link MetricsRegistry} aggregates the measurements
+ * in memory and {@link JfrMetricsSink} emits them as Java Flight Recorder events.
+ * </p>
+ */
+public interface MetricsSink {
+    /**
+     * Records one completed operation.
+     *
+     * @param operation the name of the operation, for example {@code "reader.readTickets"}
+     * @param durationNanos the wall-clock duration of the operation in nanoseconds
+     * @param allocatedBytes the bytes allocated by the calling thread during the operation, or {@code -1} if the
+     *                       JVM cannot measure them
+     * @param tickets the number of tickets read or scanned by the operation
+     * @param bytes the number of input bytes read by the operation, or {@code 0} if it read no input
+     */
+    void recordOperation(String operation, long durationNanos, long allocatedBytes, long tickets, long bytes);
+
+    /**
+     * Records an error that made an operation fail.
+     *
+     * @param operation the name of the operation
+     * @param error the error
+     */
+    void recordError(String operation, Throwable error);
+}
@@ -0,0 +1,174 @@
+package task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel counterpart of {@link TicketDataAnalyzer}.
+ * <p>
+ * The ticket list is split into contiguous partitions that are scanned concurrently on a {@link ForkJoinPool},
+ * each producing a partial {@link RouteStatistics} with per-carrier minimum durations, count/sum and prices.
+ * The partials are then combined in partition order, which makes every result identical to the one of the
+ * corresponding sequential method, including the compensated sum behind the average. Only the matching prices
+ * are touched by the final combination, so the scan itself scales with the number of threads.
+ * </p>
+ * <p>
+ * Each query is recorded as a single {@link Metrics} sample covering all partitions.
+ * </p>
+ */
+public class ParallelTicketDataAnalyzer {
+    /**
+     * The default minimum number of tickets in a partition.
+     */
+    public static final int DEFAULT_MIN_PARTITION_SIZE = 16_384;
+
+    static final String ROUTE_STATISTICS_OPERATION = "analyzer.routeStatistics.parallel";
+
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int minPartitionSize;
+
+    /**
+     * Creates an analyzer that runs on the common fork/join pool.
+     */
+    public ParallelTicketDataAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an analyzer that runs on the specified pool.
+     *
+     * @param pool the pool that executes the partition scans
+     */
+    public ParallelTicketDataAnalyzer(ForkJoinPool pool) {
+        this(pool, DEFAULT_MIN_PARTITION_SIZE);
+    }
+
+    /**
+     * Creates an analyzer that runs on the specified pool with a custom partition size.
+     *
+     * @param pool the pool that executes the partition scans
+     * @param minPartitionSize the minimum number of tickets in a partition; smaller inputs are not split
+     * @throws IllegalArgumentException if {@code minPartitionSize} is not positive
+     */
+    public ParallelTicketDataAnalyzer(ForkJoinPool pool, int minPartitionSize) {
+        if (minPartitionSize <= 0) {
+            throw new IllegalArgumentException("Partition size must be positive: " + minPartitionSize);
+        }
+        this.pool = pool;
+        this.minPartitionSize = minPartitionSize;
+    }
+
+    /**
+     * Calculates the minimum flight durations for each carrier between the provided origin and destination.
+     *
+     * @param tickets the list of ticket data
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return a map where the keys are carrier names and the values are the minimum flight durations
+     * @see TicketDataAnalyzer#calculateMinFlightsTimes(List, String, String)
+     */
+    public Map<String, Duration> calculateMinFlightsTimes(List<TicketData> tickets, String origin, String destination) {
+        return calculateRouteStatistics(tickets, origin, destination).getMinFlightsTimes();
+    }
+
+    /**
+     * Calculates the average price of tickets for the specified origin and destination.
+     *
+     * @param tickets the list of ticket data
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return the average price of tickets, or NaN if no tickets are found
+     * @see TicketDataAnalyzer#calculateAveragePrice(List, String, String)
+     */
+    public double calculateAveragePrice(List<TicketData> tickets, String origin, String destination) {
+        return calculateRouteStatistics(tickets, origin, destination).getAveragePrice();
+    }
+
+    /**
+     * Calculates the median price of tickets for the specified origin and destination.
+     *
+     * @param tickets the list of ticket data
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return the median price of tickets, or NaN if no tickets are found
+     * @see TicketDataAnalyzer#calculateMedianPrice(List, String, String)
+     */
+    public double calculateMedianPrice(List<TicketData> tickets, String origin, String destination) {
+        return calculateRouteStatistics(tickets, origin, destination).getMedianPrice();
+    }
+
+    /**
+     * Calculates the difference between the average and median prices for the specified origin and destination.
+     *
+     * @param tickets the list of ticket data
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return the difference between average and median prices
+     * @see TicketDataAnalyzer#calculateAverageAndMedianPriceDifference(List, String, String)
+     */
+    public double calculateAverageAndMedianPriceDifference(List<TicketData> tickets, String origin, String destination) {
+        return calculateRouteStatistics(tickets, origin, destination).getAverageAndMedianPriceDifference();
+    }
+
+    /**
+     * Collects the statistics of the specified route by scanning partitions of the tickets in parallel.
+     *
+     * @param tickets the list of ticket data
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return the statistics of the route
+     * @see TicketDataAnalyzer#calculateRouteStatistics(List, String, String)
+     */
+    public RouteStatistics calculateRouteStatistics(List<TicketData> tickets, String origin, String destination) {
+        Metrics.Sample sample = Metrics.start();
+        RouteStatistics statistics = collectRouteStatistics(tickets, origin, destination);
+        Metrics.record(ROUTE_STATISTICS_OPERATION, sample, tickets.size(), 0);
+        return statistics;
+    }
+
+    private RouteStatistics collectRouteStatistics(List<TicketData> tickets, String origin, String destination) {
+        List<TicketData> randomAccessTickets = tickets instanceof RandomAccess ? tickets : new ArrayList<>(tickets);
+        int size = randomAccessTickets.size();
+        int maxPartitions = Math.max(1, pool.getParallelism() * PARTITIONS_PER_THREAD);
+        int partitions = Math.max(1, Math.min(maxPartitions, size / minPartitionSize));
+        if (partitions == 1) {
+            return TicketDataAnalyzer.collectRouteStatistics(randomAccessTickets, origin, destination);
+        }
+
+        List<Callable<RouteStatistics>> tasks = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            int from = (int) ((long) size * i / partitions);
+            int to = (int) ((long) size * (i + 1) / partitions);
+            tasks.add(() -> TicketDataAnalyzer.collectRouteStatistics(randomAccessTickets.subList(from, to), origin, destination));
+        }
+
+        RouteStatistics result = new RouteStatistics(origin, destination);
+        for (Future<RouteStatistics> partial : pool.invokeAll(tasks)) {
+            result.combine(join(partial));
+        }
+        return result;
+    }
+
+    private static RouteStatistics join(Future<RouteStatistics> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a partition", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
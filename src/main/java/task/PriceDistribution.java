@@ -0,0 +1,206 @@
+package task;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Mergeable accumulator of the distribution of ticket prices.
+ * <p>
+ * A single pass over the prices yields their count, minimum, maximum, mean and standard deviation, a histogram with
+ * buckets of a fixed width and approximate percentiles. The mean and variance are accumulated with Welford's
+ * algorithm, which stays accurate when the prices are large compared to their spread; the histogram is a sparse map
+ * holding counts only for the buckets that contain prices, so its size does not depend on the range of the prices
+ * or the bucket width, and it leaves out infinite and NaN prices; the percentiles come from a {@link QuantileSketch},
+ * so memory use does not grow with the number of prices.
+ * </p>
+ * <p>
+ * Distributions with the same bucket width can be combined with {@link #merge(PriceDistribution)}, which makes it
+ * possible to accumulate batches of tickets separately, for example on different threads or as new tickets arrive,
+ * and to merge the partial distributions afterwards. Instances are not thread-safe.
+ * </p>
+ */
+public class PriceDistribution implements DoubleConsumer {
+    private final double bucketWidth;
+    private final QuantileSketch sketch = new QuantileSketch();
+    private final Map<Long, long[]> bucketCounts = new HashMap<>();
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double mean;
+    private double squaredDeviations;
+
+    /**
+     * Creates an empty distribution.
+     *
+     * @param bucketWidth the width of the histogram buckets; bucket {@code i} holds the prices in
+     *                    {@code [i * bucketWidth, (i + 1) * bucketWidth)}
+     * @throws IllegalArgumentException if the bucket width is not positive and finite
+     */
+    public PriceDistribution(double bucketWidth) {
+        this.bucketWidth = requireBucketWidth(bucketWidth);
+    }
+
+    /**
+     * Checks that the histogram bucket width is positive and finite.
+     */
+    static double requireBucketWidth(double bucketWidth) {
+        if (!(bucketWidth > 0 && bucketWidth < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("Bucket width must be positive: " + bucketWidth);
+        }
+        return bucketWidth;
+    }
+
+    /**
+     * Adds a price to the distribution.
+     *
+     * @param price the price to add
+     */
+    @Override
+    public void accept(double price) {
+        if (count == 0) {
+            min = price;
+            max = price;
+        } else {
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+        }
+        count++;
+        double delta = price - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (price - mean);
+        if (Double.isFinite(price)) {
+            addToBucket(bucket(price), 1);
+        }
+        sketch.accept(price);
+    }
+
+    /**
+     * Merges another distribution into this one. The other distribution is not modified.
+     *
+     * @param other the distribution to merge
+     * @return this distribution
+     * @throws IllegalArgumentException if the distributions have different bucket widths
+     */
+    public PriceDistribution merge(PriceDistribution other) {
+        if (Double.compare(bucketWidth, other.bucketWidth) != 0) {
+            throw new IllegalArgumentException("Cannot merge distributions with different bucket widths");
+        }
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+            mean = other.mean;
+            squaredDeviations = other.squaredDeviations;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+        }
+        count += other.count;
+        for (Map.Entry<Long, long[]> bucket : other.bucketCounts.entrySet()) {
+            addToBucket(bucket.getKey(), bucket.getValue()[0]);
+        }
+        sketch.merge(other.sketch);
+        return this;
+    }
+
+    /**
+     * Returns the number of prices.
+     *
+     * @return the number of prices
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the lowest price.
+     *
+     * @return the lowest price, or NaN if the distribution is empty
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the highest price.
+     *
+     * @return the highest price, or NaN if the distribution is empty
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the mean price.
+     *
+     * @return the mean price, or NaN if the distribution is empty
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Returns the population standard deviation of the prices.
+     *
+     * @return the standard deviation, or NaN if the distribution is empty
+     */
+    public double getStandardDeviation() {
+        return count == 0 ? Double.NaN : Math.sqrt(squaredDeviations / count);
+    }
+
+    /**
+     * Returns the approximate price at the given percentile, with the rank error of a {@link QuantileSketch} with
+     * the default accuracy.
+     *
+     * @param percentile the percentile, from {@code 0} to {@code 100}
+     * @return the price at the percentile, or NaN if the distribution is empty
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public double getPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        return sketch.quantile(percentile / 100);
+    }
+
+    /**
+     * Returns the width of the histogram buckets.
+     *
+     * @return the bucket width
+     */
+    public double getBucketWidth() {
+        return bucketWidth;
+    }
+
+    /**
+     * Returns the histogram of the prices.
+     *
+     * @return an unmodifiable map from the lower bound of every non-empty bucket to the number of finite prices in
+     * it, sorted by price
+     */
+    public NavigableMap<Double, Long> getHistogram() {
+        NavigableMap<Double, Long> histogram = new TreeMap<>();
+        for (Map.Entry<Long, long[]> bucket : bucketCounts.entrySet()) {
+            histogram.merge(bucket.getKey() * bucketWidth, bucket.getValue()[0], Long::sum);
+        }
+        return Collections.unmodifiableNavigableMap(histogram);
+    }
+
+    private long bucket(double price) {
+        return (long) Math.floor(price / bucketWidth);
+    }
+
+    private void addToBucket(long bucket, long increment) {
+        bucketCounts.computeIfAbsent(bucket, key -> new long[1])[0] += increment;
+    }
+}
@@ -0,0 +1,316 @@
+package task;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Approximate quantile sketch of a stream of values in bounded memory.
+ * <p>
+ * The sketch follows the KLL design: values are kept in a hierarchy of compactors where an item on level
+ * {@code h} stands for {@code 2^h} original values. When the sketch exceeds its capacity, the lowest full level
+ * is sorted and every other item is promoted to the next level. The parameter {@code k} controls the trade-off
+ * between accuracy and memory: the sketch retains O(k log(n / k)) values, and the normalized rank error of a
+ * quantile query is about {@code 2.3 / k^0.97} (e.g. 1.3% for {@code k = 200}).
+ * </p>
+ * <p>
+ * Sketches are mergeable, so partial sketches built over different parts of the data or on different threads can be
+ * combined with {@link #merge(QuantileSketch)}. Instances are not thread-safe.
+ * </p>
+ */
+public class QuantileSketch implements DoubleConsumer {
+    /**
+     * The default accuracy parameter, giving a rank error of about 1.3%.
+     */
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_K = 8;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final double LEVEL_CAPACITY_RATIO = 2.0 / 3.0;
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final int k;
+    private final SplittableRandom random = new SplittableRandom(SEED);
+    private double[][] levels = new double[1][];
+    private int[] levelSizes = new int[1];
+    private int retained;
+    private int capacity;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double[] sortedValues;
+    private long[] sortedWeights;
+
+    /**
+     * Creates a sketch with the default accuracy parameter.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates a sketch with the specified accuracy parameter.
+     *
+     * @param k the accuracy parameter; larger values give more accurate results and use more memory
+     * @throws IllegalArgumentException if {@code k} is less than 8
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_K) {
+            throw new IllegalArgumentException("k must be at least " + MIN_K + ": " + k);
+        }
+        this.k = k;
+        this.levels[0] = new double[levelCapacity(0, 1)];
+        this.capacity = levelCapacity(0, 1);
+    }
+
+    /**
+     * Creates a sketch whose quantile queries have approximately the specified normalized rank error.
+     *
+     * @param rankError the desired rank error, for example {@code 0.01} for 1%
+     * @return a new empty sketch
+     * @throws IllegalArgumentException if {@code rankError} is not between 0 and 1 (exclusive)
+     */
+    public static QuantileSketch withRankError(double rankError) {
+        if (!(rankError > 0 && rankError < 1)) {
+            throw new IllegalArgumentException("Rank error must be between 0 and 1: " + rankError);
+        }
+        double k = Math.pow(2.296 / rankError, 1 / 0.9723);
+        return new QuantileSketch((int) Math.max(MIN_K, Math.min(Integer.MAX_VALUE / 4, Math.ceil(k))));
+    }
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value the value to add
+     */
+    @Override
+    public void accept(double value) {
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            if (Double.compare(value, min) < 0)
+                min = value;
+            if (Double.compare(value, max) > 0)
+                max = value;
+        }
+        count++;
+        append(0, value);
+        retained++;
+        compress();
+        sortedValues = null;
+    }
+
+    /**
+     * Merges another sketch into this one. The other sketch is not modified.
+     *
+     * @param other the sketch to merge
+     * @return this sketch
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            if (Double.compare(other.min, min) < 0)
+                min = other.min;
+            if (Double.compare(other.max, max) > 0)
+                max = other.max;
+        }
+        count += other.count;
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.levelSizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+            retained += other.levelSizes[level];
+        }
+        compress();
+        sortedValues = null;
+        return this;
+    }
+
+    /**
+     * Returns the approximate value at the specified quantile.
+     *
+     * @param quantile the quantile, between 0 and 1 inclusive (0.5 for the median, 0.99 for p99)
+     * @return the approximate quantile value, or NaN if the sketch is empty
+     * @throws IllegalArgumentException if {@code quantile} is not between 0 and 1
+     */
+    public double quantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (count == 0)
+            return Double.NaN;
+        if (quantile == 0)
+            return min;
+        if (quantile == 1)
+            return max;
+
+        if (sortedValues == null) {
+            sortRetained();
+        }
+
+        double targetRank = quantile * count;
+        long cumulativeWeight = 0;
+        for (int i = 0; i < sortedValues.length; i++) {
+            cumulativeWeight += sortedWeights[i];
+            if (cumulativeWeight >= targetRank) {
+                return sortedValues[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the approximate values at the specified quantiles.
+     *
+     * @param quantiles the quantiles, each between 0 and 1 inclusive
+     * @return an array with the approximate value of each quantile, in the same order
+     */
+    public double[] quantiles(double... quantiles) {
+        double[] result = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            result[i] = quantile(quantiles[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of values added to the sketch.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the exact minimum of the values added to the sketch.
+     *
+     * @return the minimum, or NaN if the sketch is empty
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the exact maximum of the values added to the sketch.
+     *
+     * @return the maximum, or NaN if the sketch is empty
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the accuracy parameter of the sketch.
+     *
+     * @return the accuracy parameter
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Returns the number of values currently retained by the sketch, which bounds its memory use.
+     *
+     * @return the number of retained values
+     */
+    public int getRetained() {
+        return retained;
+    }
+
+    private int levelCapacity(int level, int levelCount) {
+        int depth = levelCount - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(LEVEL_CAPACITY_RATIO, depth)));
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int level = 0; level < levels.length; level++) {
+            total += levelCapacity(level, levels.length);
+        }
+        return total;
+    }
+
+    private void append(int level, double value) {
+        while (level >= levels.length) {
+            addLevel();
+        }
+        double[] buffer = levels[level];
+        int size = levelSizes[level];
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(MIN_LEVEL_CAPACITY, size * 2));
+            levels[level] = buffer;
+        }
+        buffer[size] = value;
+        levelSizes[level] = size + 1;
+    }
+
+    private void addLevel() {
+        int levelCount = levels.length + 1;
+        levels = Arrays.copyOf(levels, levelCount);
+        levelSizes = Arrays.copyOf(levelSizes, levelCount);
+        levels[levelCount - 1] = new double[levelCapacity(levelCount - 1, levelCount)];
+        capacity = totalCapacity();
+    }
+
+    private void compress() {
+        while (retained > capacity) {
+            int level = 0;
+            while (level < levels.length - 1 && levelSizes[level] < levelCapacity(level, levels.length)) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    private void compact(int level) {
+        double[] buffer = levels[level];
+        int size = levelSizes[level];
+        Arrays.sort(buffer, 0, size);
+        // An odd item stays on its level so that the total weight is preserved exactly.
+        int kept = size % 2;
+        int offset = kept + random.nextInt(2);
+        int promoted = 0;
+        for (int i = offset; i < size; i += 2) {
+            append(level + 1, buffer[i]);
+            promoted++;
+        }
+        levelSizes[level] = kept;
+        retained -= size - kept - promoted;
+    }
+
+    /**
+     * Sorts the retained values with their weights by merging the sorted copies of the levels, whose items all have
+     * the same weight. The result is kept until the sketch changes, so repeated queries do not sort again.
+     */
+    private void sortRetained() {
+        int levelCount = levels.length;
+        double[][] sortedLevels = new double[levelCount][];
+        int[] positions = new int[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            sortedLevels[level] = Arrays.copyOf(levels[level], levelSizes[level]);
+            Arrays.sort(sortedLevels[level]);
+        }
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        for (int n = 0; n < retained; n++) {
+            int next = -1;
+            for (int level = 0; level < levelCount; level++) {
+                if (positions[level] < sortedLevels[level].length && (next < 0
+                        || Double.compare(sortedLevels[level][positions[level]], sortedLevels[next][positions[next]]) < 0)) {
+                    next = level;
+                }
+            }
+            values[n] = sortedLevels[next][positions[next]++];
+            weights[n] = 1L << next;
+        }
+        sortedValues = values;
+        sortedWeights = weights;
+    }
+}
@@ -0,0 +1,126 @@
+package task;
+
+import java.util.Arrays;
+
+/**
+ * Utility class for exact order statistics on primitive arrays.
+ * <p>
+ * Values are ordered as by {@link Double#compare(double, double)}, which is the same order used when boxed
+ * prices are sorted, so the results are identical to the ones of a full sort. The methods run in expected linear
+ * time using quickselect and fall back to sorting the remaining range if partitioning degenerates.
+ * </p>
+ */
+public class Quantiles {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Calculates the median of the first {@code length} values of the array.
+     * <p>
+     * The values are reordered in place; callers that need to keep the original order must pass a copy.
+     * </p>
+     *
+     * @param values the array of values, which is partially reordered
+     * @param length the number of values at the start of the array to consider
+     * @return the median, or NaN if {@code length} is zero
+     */
+    public static double median(double[] values, int length) {
+        if (length <= 0)
+            return Double.NaN;
+        int middle = length / 2;
+        double upper = select(values, 0, length, middle);
+        if (length % 2 == 1) {
+            return upper;
+        }
+        // After selection every value before the middle is not greater than the upper middle value,
+        // so the lower middle value is the maximum of that range.
+        double lower = values[0];
+        for (int i = 1; i < middle; i++) {
+            if (Double.compare(values[i], lower) > 0) {
+                lower = values[i];
+            }
+        }
+        return (lower + upper) / 2.0;
+    }
+
+    /**
+     * Finds the {@code k}-th smallest value (zero-based) in the range {@code [from, to)} of the array.
+     * <p>
+     * On return the value is at index {@code k}, every value before it is not greater and every value after it
+     * (up to {@code to}) is not smaller.
+     * </p>
+     *
+     * @param values the array of values, which is partially reordered
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, exclusive
+     * @param k the index of the value to select, between {@code from} and {@code to - 1}
+     * @return the selected value
+     */
+    public static double select(double[] values, int from, int to, int k) {
+        int left = from;
+        int right = to - 1;
+        // Bound the number of partitioning rounds to keep the worst case at O(n log n).
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (right - left >= INSERTION_SORT_THRESHOLD) {
+            if (budget-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                return values[k];
+            }
+            int middle = (left + right) >>> 1;
+            sortThree(values, left, middle, right);
+            double pivot = values[middle];
+
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (Double.compare(values[i], pivot) < 0) {
+                    i++;
+                }
+                while (Double.compare(values[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        insertionSort(values, left, right);
+        return values[k];
+    }
+
+    private static void sortThree(double[] values, int a, int b, int c) {
+        if (Double.compare(values[b], values[a]) < 0) {
+            swap(values, a, b);
+        }
+        if (Double.compare(values[c], values[b]) < 0) {
+            swap(values, b, c);
+            if (Double.compare(values[b], values[a]) < 0) {
+                swap(values, a, b);
+            }
+        }
+    }
+
+    private static void insertionSort(double[] values, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            double value = values[i];
+            int j = i - 1;
+            while (j >= left && Double.compare(values[j], value) > 0) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
@@ -0,0 +1,217 @@
+package task;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed reports of every route of a ticket file, persisted in a JSON sidecar file next to it.
+ * <p>
+ * {@link #compute(List)} runs {@link TicketDataAnalyzer#calculateAllRouteStatistics(List)} once and keeps a
+ * {@link RouteReport} per route, with the minimum flight duration of every carrier and the average and median
+ * prices. {@link #write(String)} stores them together with the SHA-256 hash of the source file, and
+ * {@link #readIfCurrent(String)} loads them back only if the source still has that hash, so a route query can be
+ * answered by one hash lookup without parsing the tickets. Prices are written in their shortest exact decimal form,
+ * so the loaded reports are identical to the computed ones. Instances are immutable.
+ * </p>
+ */
+public class RouteAggregates {
+    /**
+     * Suffix appended to the path of the source file to form the path of its sidecar file.
+     */
+    public static final String SIDECAR_SUFFIX = ".aggregates.json";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static final Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+
+    private final Map<RouteKey, RouteReport> reports;
+
+    private RouteAggregates(Map<RouteKey, RouteReport> reports) {
+        this.reports = reports;
+    }
+
+    /**
+     * Computes the reports of every route present in the tickets.
+     *
+     * @param tickets the list of ticket data
+     * @return the aggregates of the tickets
+     */
+    public static RouteAggregates compute(List<TicketData> tickets) {
+        Map<RouteKey, RouteReport> reports = new LinkedHashMap<>();
+        for (Map.Entry<RouteKey, RouteStatistics> entry : TicketDataAnalyzer.calculateAllRouteStatistics(tickets).entrySet()) {
+            reports.put(entry.getKey(), RouteReport.of(entry.getValue()));
+        }
+        return new RouteAggregates(reports);
+    }
+
+    /**
+     * Returns the report of a route.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     * @return the report of the route, which is empty if the route has no tickets
+     */
+    public RouteReport report(String origin, String destination) {
+        RouteKey route = new RouteKey(origin, destination);
+        RouteReport report = reports.get(route);
+        return report != null ? report : new RouteReport(route, 0, Map.of(), Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Returns the reports of all routes.
+     *
+     * @return the reports, grouped by origin in order of the first appearance of the origin in the source tickets
+     * and then of the destination
+     */
+    public Collection<RouteReport> reports() {
+        return Collections.unmodifiableCollection(reports.values());
+    }
+
+    /**
+     * Returns the path of the sidecar file of a source file.
+     *
+     * @param filepath the path to the source file
+     * @return the path to the sidecar file
+     */
+    public static String sidecarPath(String filepath) {
+        return filepath + SIDECAR_SUFFIX;
+    }
+
+    /**
+     * Writes the aggregates into the sidecar file of the source file, together with the hash of the source.
+     * <p>
+     * The sidecar is first written to a temporary file and then moved into place, so readers never see
+     * a partially written sidecar.
+     * </p>
+     *
+     * @param filepath the path to the source file the aggregates were computed from
+     * @throws IOException if the source cannot be hashed or the sidecar cannot be written
+     */
+    public void write(String filepath) throws IOException {
+        List<Entry> entries = new ArrayList<>(reports.size());
+        for (RouteReport report : reports.values()) {
+            Map<String, Long> minFlightNanos = new LinkedHashMap<>();
+            for (Map.Entry<String, Duration> carrier : report.minFlightTimes().entrySet()) {
+                minFlightNanos.put(carrier.getKey(), carrier.getValue().toNanos());
+            }
+            entries.add(new Entry(report.route().originName(), report.route().destinationName(), report.count(),
+                    minFlightNanos, report.averagePrice(), report.medianPrice()));
+        }
+        Sidecar sidecar = new Sidecar(FORMAT_VERSION, sha256(filepath), entries);
+
+        Path target = Path.of(sidecarPath(filepath)).toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                gson.toJson(sidecar, writer);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads the aggregates from the sidecar file of the source file if the sidecar was written for the current
+     * content of the source.
+     *
+     * @param filepath the path to the source file
+     * @return the aggregates, or {@code null} if there is no sidecar, if it was computed from a different content
+     * of the source, or if an error occurs
+     */
+    public static RouteAggregates readIfCurrent(String filepath) {
+        Path path = Path.of(sidecarPath(filepath));
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            Sidecar sidecar;
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                sidecar = gson.fromJson(reader, Sidecar.class);
+            }
+            if (sidecar == null || sidecar.version() != FORMAT_VERSION || sidecar.routes() == null
+                    || !sha256(filepath).equals(sidecar.sourceSha256())) {
+                return null;
+            }
+            Map<RouteKey, RouteReport> reports = new LinkedHashMap<>();
+            for (Entry entry : sidecar.routes()) {
+                Map<String, Duration> minFlightTimes = new HashMap<>();
+                for (Map.Entry<String, Long> carrier : entry.minFlightNanos().entrySet()) {
+                    minFlightTimes.put(carrier.getKey(), Duration.ofNanos(carrier.getValue()));
+                }
+                RouteKey route = new RouteKey(entry.originName(), entry.destinationName());
+                reports.put(route, new RouteReport(route, entry.count(), minFlightTimes, entry.averagePrice(),
+                        entry.medianPrice()));
+            }
+            return new RouteAggregates(reports);
+        } catch (IOException | JsonParseException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Calculates the SHA-256 hash of the file.
+     *
+     * @param filepath the path to the file
+     * @return the hash as a lowercase hexadecimal string
+     * @throws IOException if the file cannot be read
+     */
+    static String sha256(String filepath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = Files.newInputStream(Path.of(filepath))) {
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * JSON form of the sidecar file.
+     */
+    private record Sidecar(int version,
+                           @SerializedName("source_sha256") String sourceSha256,
+                           List<Entry> routes) {
+    }
+
+    /**
+     * JSON form of the report of one route.
+     */
+    private record Entry(@SerializedName("origin_name") String originName,
+                         @SerializedName("destination_name") String destinationName,
+                         long count,
+                         @SerializedName("min_flight_nanos") Map<String, Long> minFlightNanos,
+                         @SerializedName("average_price") double averagePrice,
+                         @SerializedName("median_price") double medianPrice) {
+    }
+}
@@ -0,0 +1,127 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of tickets partitioned by route.
+ * <p>
+ * The index is built with a single pass over the tickets and keeps, for every (origin name, destination name)
+ * pair, a compact array with the tickets of that route. Once built, it answers route queries without scanning
+ * tickets of other routes, so a report over N routes costs one pass plus the work on each route's own tickets
+ * instead of N full scans. The index is immutable and can be shared between threads.
+ * </p>
+ */
+public class RouteIndex {
+    private static final TicketData[] NO_TICKETS = new TicketData[0];
+
+    private final Map<String, Map<String, TicketData[]>> partitions;
+    private final List<RouteKey> routes;
+    private final int size;
+
+    private RouteIndex(Map<String, Map<String, TicketData[]>> partitions, List<RouteKey> routes, int size) {
+        this.partitions = partitions;
+        this.routes = routes;
+        this.size = size;
+    }
+
+    /**
+     * Builds the index of the specified tickets.
+     *
+     * @param tickets the tickets to index
+     * @return the route index
+     */
+    public static RouteIndex build(Iterable<TicketData> tickets) {
+        Map<String, Map<String, List<TicketData>>> builders = new LinkedHashMap<>();
+        int size = 0;
+        for (TicketData ticket : tickets) {
+            builders.computeIfAbsent(ticket.originName(), origin -> new LinkedHashMap<>())
+                    .computeIfAbsent(ticket.destinationName(), destination -> new ArrayList<>())
+                    .add(ticket);
+            size++;
+        }
+
+        Map<String, Map<String, TicketData[]>> partitions = new HashMap<>();
+        List<RouteKey> routes = new ArrayList<>();
+        for (Map.Entry<String, Map<String, List<TicketData>>> originEntry : builders.entrySet()) {
+            Map<String, TicketData[]> destinations = new HashMap<>();
+            for (Map.Entry<String, List<TicketData>> destinationEntry : originEntry.getValue().entrySet()) {
+                destinations.put(destinationEntry.getKey(), destinationEntry.getValue().toArray(NO_TICKETS));
+                routes.add(new RouteKey(originEntry.getKey(), destinationEntry.getKey()));
+            }
+            partitions.put(originEntry.getKey(), destinations);
+        }
+        return new RouteIndex(partitions, Collections.unmodifiableList(routes), size);
+    }
+
+    /**
+     * Returns the routes present in the index, grouped by origin in order of the first appearance of the origin
+     * and then of the destination.
+     *
+     * @return an unmodifiable list of route keys
+     */
+    public List<RouteKey> routes() {
+        return routes;
+    }
+
+    /**
+     * Returns the total number of indexed tickets.
+     *
+     * @return the number of tickets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the tickets of the specified route in their original order.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     * @return an unmodifiable list of the route's tickets, empty if the route is not present
+     */
+    public List<TicketData> tickets(String origin, String destination) {
+        return Collections.unmodifiableList(Arrays.asList(partition(origin, destination)));
+    }
+
+    /**
+     * Calculates the statistics of the specified route using only the tickets of that route.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     * @return the statistics of the route, empty if the route is not present
+     */
+    public RouteStatistics statistics(String origin, String destination) {
+        RouteStatistics statistics = new RouteStatistics(origin, destination);
+        for (TicketData ticket : partition(origin, destination)) {
+            statistics.add(ticket);
+        }
+        return statistics;
+    }
+
+    /**
+     * Calculates the statistics of every route in the index.
+     *
+     * @return a map from route keys to route statistics, in the order of {@link #routes()}
+     */
+    public Map<RouteKey, RouteStatistics> allStatistics() {
+        Map<RouteKey, RouteStatistics> result = new LinkedHashMap<>();
+        for (RouteKey route : routes) {
+            result.put(route, statistics(route.originName(), route.destinationName()));
+        }
+        return result;
+    }
+
+    TicketData[] partition(String origin, String destination) {
+        Map<String, TicketData[]> destinations = partitions.get(origin);
+        if (destinations == null) {
+            return NO_TICKETS;
+        }
+        return destinations.getOrDefault(destination, NO_TICKETS);
+    }
+}
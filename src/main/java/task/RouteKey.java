@@ -0,0 +1,19 @@
+package task;
+
+/**
+ * Record identifying a route by the names of its origin and destination.
+ *
+ * @param originName the name of the origin
+ * @param destinationName the name of the destination
+ */
+public record RouteKey(String originName, String destinationName) {
+    /**
+     * Returns the key of the route the ticket belongs to.
+     *
+     * @param ticket the ticket
+     * @return the route key of the ticket
+     */
+    public static RouteKey of(TicketData ticket) {
+        return new RouteKey(ticket.originName(), ticket.destinationName());
+    }
+}
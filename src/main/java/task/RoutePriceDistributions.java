@@ -0,0 +1,120 @@
+package task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Price distributions of every route and carrier in a set of tickets, accumulated in a single pass.
+ * <p>
+ * Every ticket is added to the {@link PriceDistribution} of its (origin name, destination name, carrier) triple,
+ * found by three hash lookups without allocating a key. The distribution of a whole route is obtained by merging
+ * the distributions of its carriers, so each price is accumulated only once.
+ * </p>
+ * <p>
+ * Like {@link RouteStatistics}, instances can be used as the container of a {@link java.util.stream.Collector}:
+ * partial distributions accumulated on different threads or from different batches of tickets are combined with
+ * {@link #combine(RoutePriceDistributions)}. Instances are not thread-safe.
+ * </p>
+ */
+public class RoutePriceDistributions implements Consumer<TicketData> {
+    private final double bucketWidth;
+    private final Map<String, Map<String, Map<String, PriceDistribution>>> distributions = new LinkedHashMap<>();
+
+    /**
+     * Creates empty distributions.
+     *
+     * @param bucketWidth the width of the histogram buckets of every distribution
+     * @throws IllegalArgumentException if the bucket width is not positive and finite
+     */
+    public RoutePriceDistributions(double bucketWidth) {
+        this.bucketWidth = PriceDistribution.requireBucketWidth(bucketWidth);
+    }
+
+    /**
+     * Adds the price of a ticket to the distribution of its route and carrier.
+     *
+     * @param ticket the ticket to add
+     */
+    @Override
+    public void accept(TicketData ticket) {
+        carrierDistributions(ticket.originName(), ticket.destinationName())
+                .computeIfAbsent(ticket.carrier(), carrier -> new PriceDistribution(bucketWidth))
+                .accept(ticket.price());
+    }
+
+    /**
+     * Merges the distributions of another instance into this one. The other instance is not modified.
+     *
+     * @param other the distributions to merge
+     * @return this instance
+     * @throws IllegalArgumentException if the instances have different bucket widths
+     */
+    public RoutePriceDistributions combine(RoutePriceDistributions other) {
+        if (Double.compare(bucketWidth, other.bucketWidth) != 0) {
+            throw new IllegalArgumentException("Cannot combine distributions with different bucket widths");
+        }
+        for (Map.Entry<String, Map<String, Map<String, PriceDistribution>>> originEntry : other.distributions.entrySet()) {
+            for (Map.Entry<String, Map<String, PriceDistribution>> destinationEntry : originEntry.getValue().entrySet()) {
+                Map<String, PriceDistribution> carriers = carrierDistributions(originEntry.getKey(), destinationEntry.getKey());
+                for (Map.Entry<String, PriceDistribution> carrierEntry : destinationEntry.getValue().entrySet()) {
+                    carriers.computeIfAbsent(carrierEntry.getKey(), carrier -> new PriceDistribution(bucketWidth))
+                            .merge(carrierEntry.getValue());
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the routes with at least one ticket, grouped by origin in order of the first appearance of the origin
+     * and then of the destination.
+     *
+     * @return the list of route keys
+     */
+    public List<RouteKey> routes() {
+        List<RouteKey> routes = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Map<String, PriceDistribution>>> originEntry : distributions.entrySet()) {
+            for (String destination : originEntry.getValue().keySet()) {
+                routes.add(new RouteKey(originEntry.getKey(), destination));
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Returns the price distributions of the carriers of a route.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     * @return an unmodifiable map from carriers to their price distributions, in order of their first appearance,
+     * which is empty if the route has no tickets
+     */
+    public Map<String, PriceDistribution> carriers(String origin, String destination) {
+        Map<String, PriceDistribution> carriers = distributions.getOrDefault(origin, Map.of()).get(destination);
+        return carriers == null ? Map.of() : Collections.unmodifiableMap(carriers);
+    }
+
+    /**
+     * Returns the price distribution of all carriers of a route.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     * @return a new distribution merged from the carriers' distributions, which is empty if the route has no tickets
+     */
+    public PriceDistribution route(String origin, String destination) {
+        PriceDistribution route = new PriceDistribution(bucketWidth);
+        for (PriceDistribution carrier : carriers(origin, destination).values()) {
+            route.merge(carrier);
+        }
+        return route;
+    }
+
+    private Map<String, PriceDistribution> carrierDistributions(String origin, String destination) {
+        return distributions.computeIfAbsent(origin, key -> new LinkedHashMap<>())
+                .computeIfAbsent(destination, key -> new LinkedHashMap<>());
+    }
+}
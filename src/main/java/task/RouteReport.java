@@ -0,0 +1,54 @@
+package task;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the computed statistics of a route.
+ * <p>
+ * Unlike {@link RouteStatistics}, which keeps every price to be able to accept more tickets, a report only holds
+ * the final values and is cheap to cache and share between threads.
+ * </p>
+ *
+ * @param route the route
+ * @param count the number of tickets of the route
+ * @param minFlightTimes the minimum flight durations for each carrier of the route
+ * @param averagePrice the average ticket price, or NaN if there are no tickets
+ * @param medianPrice the median ticket price, or NaN if there are no tickets
+ */
+public record RouteReport(RouteKey route,
+                          long count,
+                          Map<String, Duration> minFlightTimes,
+                          double averagePrice,
+                          double medianPrice) {
+    /**
+     * Creates a report with an unmodifiable copy of the minimum flight durations, which keeps the carriers in the
+     * iteration order of the given map.
+     */
+    public RouteReport {
+        minFlightTimes = Collections.unmodifiableMap(new LinkedHashMap<>(minFlightTimes));
+    }
+
+    /**
+     * Creates a report of the current values of the route statistics.
+     *
+     * @param statistics the statistics of the route
+     * @return the report
+     */
+    public static RouteReport of(RouteStatistics statistics) {
+        return new RouteReport(new RouteKey(statistics.getOrigin(), statistics.getDestination()),
+                statistics.getCount(), statistics.getMinFlightsTimes(),
+                statistics.getAveragePrice(), statistics.getMedianPrice());
+    }
+
+    /**
+     * Returns the difference between the average and median ticket prices.
+     *
+     * @return the difference between average and median prices, or NaN if there are no tickets
+     */
+    public double averageAndMedianPriceDifference() {
+        return averagePrice - medianPrice;
+    }
+}
@@ -0,0 +1,169 @@
+package task;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Incremental accumulator of the statistics of a single route.
+ * <p>
+ * An instance collects, in one pass over the tickets, the minimum flight duration of every carrier,
+ * the count, sum and mean of the prices and the prices themselves for the median. Tickets of other routes
+ * are ignored, so the accumulator can be fed directly from {@link TicketJsonReader#readTickets(String, Consumer)}
+ * or from a live feed, and queried at any time without rescanning the data.
+ * </p>
+ * <p>
+ * The results are identical to the ones of the corresponding {@link TicketDataAnalyzer} methods.
+ * Instances are not thread-safe; partial results built on different threads can be merged with
+ * {@link #combine(RouteStatistics)}.
+ * </p>
+ */
+public class RouteStatistics implements Consumer<TicketData> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String origin;
+    private final String destination;
+    private final CarrierMinimums carrierMinimums = new CarrierMinimums();
+    private final DoubleSummaryStatistics priceStatistics = new DoubleSummaryStatistics();
+    private double[] prices = new double[INITIAL_CAPACITY];
+
+    /**
+     * Creates an empty accumulator for the specified route.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     */
+    public RouteStatistics(String origin, String destination) {
+        this.origin = origin;
+        this.destination = destination;
+    }
+
+    /**
+     * Adds the ticket to the statistics if it belongs to the route; otherwise does nothing.
+     *
+     * @param ticket the ticket to add
+     */
+    @Override
+    public void accept(TicketData ticket) {
+        if (ticket.originName().equals(origin) && ticket.destinationName().equals(destination)) {
+            add(ticket);
+        }
+    }
+
+    /**
+     * Adds the ticket to the statistics without checking its route.
+     *
+     * @param ticket the ticket to add, which must belong to the route
+     */
+    void add(TicketData ticket) {
+        carrierMinimums.update(ticket.carrier(), CarrierMinimums.flightNanos(ticket));
+        addPrice(ticket.price());
+    }
+
+    /**
+     * Merges the statistics collected by another accumulator of the same route into this one.
+     * <p>
+     * The prices of {@code other} are treated as if they had been accepted after the prices of this accumulator,
+     * so combining partial results of consecutive parts of a ticket list yields exactly the same average
+     * as accepting the whole list sequentially.
+     * </p>
+     *
+     * @param other the accumulator to merge into this one
+     * @return this accumulator
+     * @throws IllegalArgumentException if {@code other} collects statistics of a different route
+     */
+    public RouteStatistics combine(RouteStatistics other) {
+        if (!origin.equals(other.origin) || !destination.equals(other.destination)) {
+            throw new IllegalArgumentException("Cannot combine statistics of different routes");
+        }
+        carrierMinimums.combine(other.carrierMinimums);
+        int size = (int) priceStatistics.getCount();
+        int otherSize = (int) other.priceStatistics.getCount();
+        if (size + otherSize > prices.length) {
+            prices = Arrays.copyOf(prices, Math.max(prices.length * 2, size + otherSize));
+        }
+        System.arraycopy(other.prices, 0, prices, size, otherSize);
+        for (int i = 0; i < otherSize; i++) {
+            priceStatistics.accept(prices[size + i]);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the origin name of the route.
+     *
+     * @return the origin name
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Returns the destination name of the route.
+     *
+     * @return the destination name
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    /**
+     * Returns the number of tickets of the route accepted so far.
+     *
+     * @return the number of tickets
+     */
+    public long getCount() {
+        return priceStatistics.getCount();
+    }
+
+    /**
+     * Returns the minimum flight durations for each carrier of the route.
+     *
+     * @return a new map where the keys are carrier names and the values are the minimum flight durations
+     */
+    public Map<String, Duration> getMinFlightsTimes() {
+        return carrierMinimums.toDurations();
+    }
+
+    /**
+     * Returns the average ticket price of the route.
+     *
+     * @return the average price, or NaN if no tickets have been accepted
+     */
+    public double getAveragePrice() {
+        if (priceStatistics.getCount() == 0)
+            return Double.NaN;
+        return priceStatistics.getAverage();
+    }
+
+    /**
+     * Returns the median ticket price of the route.
+     *
+     * @return the median price, or NaN if no tickets have been accepted
+     */
+    public double getMedianPrice() {
+        int size = (int) priceStatistics.getCount();
+        // The prices are copied because their order must be kept for combine.
+        return Quantiles.median(Arrays.copyOf(prices, size), size);
+    }
+
+    /**
+     * Returns the difference between the average and median ticket prices of the route.
+     *
+     * @return the difference between average and median prices, or NaN if no tickets have been accepted
+     */
+    public double getAverageAndMedianPriceDifference() {
+        return getAveragePrice() - getMedianPrice();
+    }
+
+    private void addPrice(double price) {
+        int size = (int) priceStatistics.getCount();
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+        prices[size] = price;
+        priceStatistics.accept(price);
+    }
+}
@@ -0,0 +1,88 @@
+package task;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary that maps strings to dense integer ids.
+ * <p>
+ * Ids are assigned in order of first appearance starting from zero, so they can be used directly as array indexes.
+ * The table is used to dictionary-encode the repeated string fields of tickets. Instances are not thread-safe.
+ * </p>
+ */
+public class SymbolTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] symbols = new String[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the id of the string, adding it to the table if it is not present yet.
+     *
+     * @param symbol the string to look up
+     * @return the id of the string
+     */
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+        }
+        symbols[size] = symbol;
+        ids.put(symbol, size);
+        return size++;
+    }
+
+    /**
+     * Returns the canonical instance of the string, adding it to the table if it is not present yet.
+     * <p>
+     * The canonical instance is the first string equal to {@code symbol} that was added to the table, so all
+     * strings passed through this method that are equal are replaced by the same object.
+     * </p>
+     *
+     * @param symbol the string to look up
+     * @return the canonical instance of the string
+     */
+    public String canonical(String symbol) {
+        int id = intern(symbol);
+        return symbols[id];
+    }
+
+    /**
+     * Returns the id of the string without adding it to the table.
+     *
+     * @param symbol the string to look up
+     * @return the id of the string, or {@code -1} if it is not present
+     */
+    public int id(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the string with the specified id.
+     *
+     * @param id the id of the string
+     * @return the string
+     * @throws IndexOutOfBoundsException if there is no string with the id
+     */
+    public String symbol(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No symbol with id " + id);
+        }
+        return symbols[id];
+    }
+
+    /**
+     * Returns the number of strings in the table.
+     *
+     * @return the number of strings
+     */
+    public int size() {
+        return size;
+    }
+}
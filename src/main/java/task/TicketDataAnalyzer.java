@@ -1,9 +1,13 @@
 package task;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalDouble;
@@ -13,9 +17,32 @@ import java.util.OptionalDouble;
  * <p>
  * This class provides methods to calculate flight durations, average prices, median prices,
  * and the difference between average and median prices for flights based on origin and destination.
+ * When several of these values are needed for the same route, {@link #calculateRouteStatistics(List, String, String)}
+ * computes all of them in a single pass, and {@link #calculateRouteStatistics(List, Collection)} does so for many
+ * routes at once. Overloads taking a {@link TicketStore} run the same calculations
+ * on columnar, dictionary-encoded data.
+ * </p>
+ * <p>
+ * When a {@link MetricsSink} is installed with {@link Metrics#setSink(MetricsSink)}, every calculation reports its
+ * latency, its allocations and the number of tickets it ran over.
  * </p>
  */
 public class TicketDataAnalyzer {
+    private static final int INITIAL_CAPACITY = 16;
+    static final String MIN_FLIGHT_TIMES_OPERATION = "analyzer.minFlightTimes";
+    static final String UTC_MIN_FLIGHT_TIMES_OPERATION = "analyzer.minFlightTimes.utc";
+    static final String AVERAGE_PRICE_OPERATION = "analyzer.averagePrice";
+    static final String MEDIAN_PRICE_OPERATION = "analyzer.medianPrice";
+    static final String EXTERNAL_MEDIAN_PRICE_OPERATION = "analyzer.medianPrice.external";
+    static final String EXTERNAL_ROUTE_REPORT_OPERATION = "analyzer.routeReport.external";
+    static final String PRICE_DIFFERENCE_OPERATION = "analyzer.priceDifference";
+    static final String PRICE_SKETCH_OPERATION = "analyzer.priceSketch";
+    static final String PRICE_DISTRIBUTIONS_OPERATION = "analyzer.priceDistributions";
+    static final String ROUTE_STATISTICS_OPERATION = "analyzer.routeStatistics";
+    static final String FILTERED_ROUTE_STATISTICS_OPERATION = "analyzer.routeStatistics.filtered";
+    static final String ALL_ROUTE_STATISTICS_OPERATION = "analyzer.allRouteStatistics";
+    static final String BATCH_ROUTE_STATISTICS_OPERATION = "analyzer.routeStatistics.batch";
+
     /**
      * Calculates the minimum flight durations for each carrier between the provided origin and destination.
      *
@@ -25,23 +52,47 @@ public class TicketDataAnalyzer {
      * @return a map where the keys are carrier names and the values are the minimum flight durations
      */
     public static Map<String, Duration> calculateMinFlightsTimes(List<TicketData> tickets, String origin, String destination) {
-        Map<String, Duration> carrierFlightDurations = new HashMap<>();
+        Metrics.Sample sample = Metrics.start();
+        CarrierMinimums carrierMinimums = new CarrierMinimums();
 
         for (TicketData ticket : tickets) {
             if (ticket.originName().equals(origin) && ticket.destinationName().equals(destination)) {
-                LocalDateTime departureDateTime = LocalDateTime.of(ticket.departureDate(), ticket.departureTime());
-                LocalDateTime arrivalDateTime = LocalDateTime.of(ticket.arrivalDate(), ticket.arrivalTime());
+                carrierMinimums.update(ticket.carrier(), CarrierMinimums.flightNanos(ticket));
+            }
+        }
+        Map<String, Duration> durations = carrierMinimums.toDurations();
+        Metrics.record(MIN_FLIGHT_TIMES_OPERATION, sample, tickets.size(), 0);
+        return durations;
+    }
 
-                Duration duration = Duration.between(departureDateTime, arrivalDateTime);
+    /**
+     * Calculates the real minimum flight durations for each carrier between the provided origin and destination.
+     * <p>
+     * Unlike {@link #calculateMinFlightsTimes(List, String, String)}, which subtracts the local departure time from
+     * the local arrival time, the durations are computed in UTC using the time zones of the origin and destination
+     * airports.
+     * </p>
+     *
+     * @param tickets the list of ticket data
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @param zones the time zones of the airports
+     * @return a map where the keys are carrier names and the values are the minimum flight durations
+     * @throws IllegalArgumentException if an airport of a matching ticket is not in the table
+     */
+    public static Map<String, Duration> calculateMinFlightsTimes(List<TicketData> tickets, String origin,
+                                                                 String destination, AirportZones zones) {
+        Metrics.Sample sample = Metrics.start();
+        CarrierMinimums carrierMinimums = new CarrierMinimums();
 
-                String carrier = ticket.carrier();
-                Duration existingDuration = carrierFlightDurations.getOrDefault(carrier, ChronoUnit.FOREVER.getDuration());
-                if (duration.compareTo(existingDuration) < 0) {
-                    carrierFlightDurations.put(carrier, duration);
-                }
+        for (TicketData ticket : tickets) {
+            if (ticket.originName().equals(origin) && ticket.destinationName().equals(destination)) {
+                carrierMinimums.update(ticket.carrier(), zones.flightNanos(ticket));
             }
         }
-        return carrierFlightDurations;
+        Map<String, Duration> durations = carrierMinimums.toDurations();
+        Metrics.record(UTC_MIN_FLIGHT_TIMES_OPERATION, sample, tickets.size(), 0);
+        return durations;
     }
 
     /**
@@ -53,10 +104,12 @@ public class TicketDataAnalyzer {
      * @return the average price of tickets, or NaN if no tickets are found
      */
     public static double calculateAveragePrice(List<TicketData> tickets, String origin, String destination) {
+        Metrics.Sample sample = Metrics.start();
         OptionalDouble average = tickets.stream()
                 .filter(t -> t.originName().equals(origin) && t.destinationName().equals(destination))
                 .mapToDouble(TicketData::price)
                 .average();
+        Metrics.record(AVERAGE_PRICE_OPERATION, sample, tickets.size(), 0);
         if (average.isPresent())
             return average.getAsDouble();
         else
@@ -72,22 +125,138 @@ public class TicketDataAnalyzer {
      * @return the median price of tickets, or NaN if no tickets are found
      */
     public static double calculateMedianPrice(List<TicketData> tickets, String origin, String destination) {
-        List<Double> sortedPrices = tickets.stream()
-                .filter(t -> t.originName().equals(origin) && t.destinationName().equals(destination))
-                .map(TicketData::price)
-                .sorted()
-                .toList();
+        Metrics.Sample sample = Metrics.start();
+        double[] prices = new double[INITIAL_CAPACITY];
+        int size = 0;
+        for (TicketData ticket : tickets) {
+            if (ticket.originName().equals(origin) && ticket.destinationName().equals(destination)) {
+                if (size == prices.length) {
+                    prices = Arrays.copyOf(prices, size * 2);
+                }
+                prices[size++] = ticket.price();
+            }
+        }
+        double median = Quantiles.median(prices, size);
+        Metrics.record(MEDIAN_PRICE_OPERATION, sample, tickets.size(), 0);
+        return median;
+    }
 
-        int size = sortedPrices.size();
-        if (size <= 0)
-            return Double.NaN;
-        if (size % 2 == 1) {
-            return sortedPrices.get(size / 2);
-        } else {
-            double middle1 = sortedPrices.get(size / 2 - 1);
-            double middle2 = sortedPrices.get(size / 2);
-            return (middle1 + middle2) / 2.0;
+    /**
+     * Calculates the exact median price of tickets for the specified origin and destination within a memory budget.
+     * <p>
+     * When the matching prices do not fit into the budget, sorted runs of them are spilled to temporary files and
+     * merged by an {@link ExternalMedian}. The result is bit-identical to
+     * {@link #calculateMedianPrice(List, String, String)}.
+     * </p>
+     *
+     * @param tickets the tickets, which may be a lazily populated iterable such as one backed by a stream of a file
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @param memoryBytes the memory budget of the buffered prices in bytes
+     * @return the median price of tickets, or NaN if no tickets are found
+     * @throws IllegalArgumentException if the budget is less than {@link ExternalMedian#MIN_MEMORY_BYTES}
+     * @throws java.io.UncheckedIOException if the temporary files cannot be written, read or deleted
+     */
+    public static double calculateMedianPrice(Iterable<TicketData> tickets, String origin, String destination,
+                                              long memoryBytes) {
+        return externalRouteReport(tickets, origin, destination, memoryBytes, EXTERNAL_MEDIAN_PRICE_OPERATION)
+                .medianPrice();
+    }
+
+    /**
+     * Calculates the report of the specified origin and destination in a single pass, computing the exact median
+     * price within a memory budget.
+     * <p>
+     * The minimum flight durations and the average price are accumulated as by {@link RouteStatistics}, and the
+     * median as by {@link #calculateMedianPrice(Iterable, String, String, long)}, so the report is identical to
+     * {@link RouteReport#of(RouteStatistics)} of the statistics of the same tickets.
+     * </p>
+     *
+     * @param tickets the tickets, which may be a lazily populated iterable such as one backed by a stream of a file
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @param memoryBytes the memory budget of the buffered prices in bytes
+     * @return the report of the route, which is empty if no tickets are found
+     * @throws IllegalArgumentException if the budget is less than {@link ExternalMedian#MIN_MEMORY_BYTES}
+     * @throws java.io.UncheckedIOException if the temporary files cannot be written, read or deleted
+     */
+    public static RouteReport calculateRouteReport(Iterable<TicketData> tickets, String origin, String destination,
+                                                   long memoryBytes) {
+        return externalRouteReport(tickets, origin, destination, memoryBytes, EXTERNAL_ROUTE_REPORT_OPERATION);
+    }
+
+    private static RouteReport externalRouteReport(Iterable<TicketData> tickets, String origin, String destination,
+                                                   long memoryBytes, String operation) {
+        Metrics.Sample sample = Metrics.start();
+        long scanned = 0;
+        CarrierMinimums carrierMinimums = new CarrierMinimums();
+        DoubleSummaryStatistics priceStatistics = new DoubleSummaryStatistics();
+        RouteReport report;
+        try (ExternalMedian prices = new ExternalMedian(memoryBytes)) {
+            for (TicketData ticket : tickets) {
+                scanned++;
+                if (ticket.originName().equals(origin) && ticket.destinationName().equals(destination)) {
+                    carrierMinimums.update(ticket.carrier(), CarrierMinimums.flightNanos(ticket));
+                    priceStatistics.accept(ticket.price());
+                    prices.accept(ticket.price());
+                }
+            }
+            double average = prices.getCount() == 0 ? Double.NaN : priceStatistics.getAverage();
+            report = new RouteReport(new RouteKey(origin, destination), prices.getCount(),
+                    carrierMinimums.toDurations(), average, prices.median());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Metrics.record(operation, sample, scanned, 0);
+        return report;
+    }
+
+    /**
+     * Builds an approximate quantile sketch of the ticket prices for the specified origin and destination.
+     * <p>
+     * The sketch uses bounded memory regardless of the number of tickets and can answer any number of quantile
+     * queries, e.g. p50, p90 and p99 of the price. It can also be fed further, for example from
+     * {@link TicketJsonReader#readTickets(String, java.util.function.Consumer)}, and merged with other sketches.
+     * </p>
+     *
+     * @param tickets the list of ticket data
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @param rankError the desired normalized rank error of quantile queries, for example {@code 0.01} for 1%
+     * @return the price sketch of the route
+     */
+    public static QuantileSketch calculatePriceSketch(List<TicketData> tickets, String origin, String destination, double rankError) {
+        Metrics.Sample sample = Metrics.start();
+        QuantileSketch sketch = QuantileSketch.withRankError(rankError);
+        for (TicketData ticket : tickets) {
+            if (ticket.originName().equals(origin) && ticket.destinationName().equals(destination)) {
+                sketch.accept(ticket.price());
+            }
         }
+        Metrics.record(PRICE_SKETCH_OPERATION, sample, tickets.size(), 0);
+        return sketch;
+    }
+
+    /**
+     * Calculates the price distributions of every route and carrier in a single pass over the tickets.
+     * <p>
+     * Each distribution has the count, minimum, maximum, mean, standard deviation, approximate percentiles and a
+     * histogram of the prices. The result can be fed further and combined with distributions of other tickets.
+     * </p>
+     *
+     * @param tickets the list of ticket data
+     * @param bucketWidth the width of the histogram buckets, in units of price
+     * @return the price distributions per route and carrier
+     * @throws IllegalArgumentException if the bucket width is not positive and finite
+     */
+    public static RoutePriceDistributions calculatePriceDistributions(List<TicketData> tickets, double bucketWidth) {
+        Metrics.Sample sample = Metrics.start();
+        RoutePriceDistributions distributions = new RoutePriceDistributions(bucketWidth);
+        for (TicketData ticket : tickets) {
+            distributions.accept(ticket);
+        }
+        Metrics.record(PRICE_DISTRIBUTIONS_OPERATION, sample, tickets.size(), 0);
+        return distributions;
     }
 
     /**
@@ -99,8 +268,249 @@ public class TicketDataAnalyzer {
      * @return the difference between average and median prices
      */
     public static double calculateAverageAndMedianPriceDifference(List<TicketData> tickets, String origin, String destination) {
-        double avg = calculateAveragePrice(tickets, origin, destination);
-        double median = calculateMedianPrice(tickets, origin, destination);
+        Metrics.Sample sample = Metrics.start();
+        double difference = collectRouteStatistics(tickets, origin, destination).getAverageAndMedianPriceDifference();
+        Metrics.record(PRICE_DIFFERENCE_OPERATION, sample, tickets.size(), 0);
+        return difference;
+    }
+
+    /**
+     * Collects the minimum flight durations, average and median prices for the specified origin and destination
+     * in a single pass over the tickets.
+     *
+     * @param tickets the list of ticket data
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return the statistics of the route, which may be updated further with new tickets
+     */
+    public static RouteStatistics calculateRouteStatistics(List<TicketData> tickets, String origin, String destination) {
+        Metrics.Sample sample = Metrics.start();
+        RouteStatistics statistics = collectRouteStatistics(tickets, origin, destination);
+        Metrics.record(ROUTE_STATISTICS_OPERATION, sample, tickets.size(), 0);
+        return statistics;
+    }
+
+    static RouteStatistics collectRouteStatistics(List<TicketData> tickets, String origin, String destination) {
+        RouteStatistics statistics = new RouteStatistics(origin, destination);
+        for (TicketData ticket : tickets) {
+            statistics.accept(ticket);
+        }
+        return statistics;
+    }
+
+    /**
+     * Collects the minimum flight durations, average and median prices of the tickets selected by the filter
+     * in a single pass over the tickets.
+     *
+     * @param tickets the list of ticket data
+     * @param filter the criteria of the tickets to include
+     * @return the statistics of the selected tickets of the filter's route
+     * @see TicketQueryIndex#query(TicketFilter)
+     */
+    public static RouteStatistics calculateRouteStatistics(List<TicketData> tickets, TicketFilter filter) {
+        Metrics.Sample sample = Metrics.start();
+        RouteStatistics statistics = new RouteStatistics(filter.originName(), filter.destinationName());
+        for (TicketData ticket : tickets) {
+            if (filter.test(ticket)) {
+                statistics.add(ticket);
+            }
+        }
+        Metrics.record(FILTERED_ROUTE_STATISTICS_OPERATION, sample, tickets.size(), 0);
+        return statistics;
+    }
+
+    /**
+     * Collects the minimum flight durations, average and median prices of several routes in a single pass over
+     * the tickets.
+     * <p>
+     * Each ticket is routed to the statistics of its route by two hash lookups, by origin name and then by
+     * destination name, so the cost grows with the number of tickets and not with the number of queried routes.
+     * The statistics of every route are identical to those returned by
+     * {@link #calculateRouteStatistics(List, String, String)} for that route.
+     * </p>
+     *
+     * @param tickets the list of ticket data
+     * @param routes the routes to query; duplicates are answered once
+     * @return a map from the queried route keys to their statistics, in order of the routes' first occurrence
+     * in {@code routes}; routes without tickets have empty statistics
+     */
+    public static Map<RouteKey, RouteStatistics> calculateRouteStatistics(List<TicketData> tickets,
+                                                                          Collection<RouteKey> routes) {
+        Metrics.Sample sample = Metrics.start();
+        Map<RouteKey, RouteStatistics> results = new LinkedHashMap<>();
+        Map<String, Map<String, RouteStatistics>> byOrigin = new HashMap<>();
+        for (RouteKey route : routes) {
+            RouteStatistics statistics = results.computeIfAbsent(route,
+                    key -> new RouteStatistics(key.originName(), key.destinationName()));
+            byOrigin.computeIfAbsent(route.originName(), origin -> new HashMap<>())
+                    .put(route.destinationName(), statistics);
+        }
+
+        for (TicketData ticket : tickets) {
+            Map<String, RouteStatistics> byDestination = byOrigin.get(ticket.originName());
+            if (byDestination != null) {
+                RouteStatistics statistics = byDestination.get(ticket.destinationName());
+                if (statistics != null) {
+                    statistics.add(ticket);
+                }
+            }
+        }
+        Metrics.record(BATCH_ROUTE_STATISTICS_OPERATION, sample, tickets.size(), 0);
+        return results;
+    }
+
+    /**
+     * Collects the statistics of every route present in the tickets.
+     * <p>
+     * The tickets are partitioned by route with a single pass, after which each route's statistics
+     * are computed from its own tickets only.
+     * </p>
+     *
+     * @param tickets the list of ticket data
+     * @return a map from route keys to route statistics, grouped by origin in order of the first appearance
+     * of the origin and then of the destination
+     */
+    public static Map<RouteKey, RouteStatistics> calculateAllRouteStatistics(List<TicketData> tickets) {
+        Metrics.Sample sample = Metrics.start();
+        Map<RouteKey, RouteStatistics> statistics = RouteIndex.build(tickets).allStatistics();
+        Metrics.record(ALL_ROUTE_STATISTICS_OPERATION, sample, tickets.size(), 0);
+        return statistics;
+    }
+
+    /**
+     * Calculates the minimum flight durations for each carrier between the provided origin and destination
+     * using the columnar ticket store.
+     *
+     * @param store the columnar ticket store
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return a map where the keys are carrier names and the values are the minimum flight durations
+     */
+    public static Map<String, Duration> calculateMinFlightsTimes(TicketStore store, String origin, String destination) {
+        Metrics.Sample sample = Metrics.start();
+        Map<String, Duration> carrierFlightDurations = new HashMap<>();
+        SymbolTable symbols = store.symbols();
+        int originId = symbols.id(origin);
+        int destinationId = symbols.id(destination);
+        if (originId < 0 || destinationId < 0) {
+            Metrics.record(MIN_FLIGHT_TIMES_OPERATION, sample, store.size(), 0);
+            return carrierFlightDurations;
+        }
+
+        int[] originNames = store.originNames();
+        int[] destinationNames = store.destinationNames();
+        int[] carriers = store.carriers();
+        long[] departures = store.departures();
+        long[] arrivals = store.arrivals();
+        long[] minMinutes = new long[symbols.size()];
+        Arrays.fill(minMinutes, Long.MAX_VALUE);
+
+        int[] range = store.routeRange(originId, destinationId);
+        int from = range == null ? 0 : range[0];
+        int to = range == null ? store.size() : range[1];
+        for (int i = from; i < to; i++) {
+            if (originNames[i] == originId && destinationNames[i] == destinationId) {
+                long minutes = arrivals[i] - departures[i];
+                if (minutes < minMinutes[carriers[i]]) {
+                    minMinutes[carriers[i]] = minutes;
+                }
+            }
+        }
+        for (int carrier = 0; carrier < minMinutes.length; carrier++) {
+            if (minMinutes[carrier] != Long.MAX_VALUE) {
+                carrierFlightDurations.put(symbols.symbol(carrier), Duration.ofMinutes(minMinutes[carrier]));
+            }
+        }
+        Metrics.record(MIN_FLIGHT_TIMES_OPERATION, sample, store.size(), 0);
+        return carrierFlightDurations;
+    }
+
+    /**
+     * Calculates the average price of tickets for the specified origin and destination using the columnar ticket store.
+     *
+     * @param store the columnar ticket store
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return the average price of tickets, or NaN if no tickets are found
+     */
+    public static double calculateAveragePrice(TicketStore store, String origin, String destination) {
+        Metrics.Sample sample = Metrics.start();
+        double[] prices = collectPrices(store, origin, destination);
+        double average = average(prices, prices.length);
+        Metrics.record(AVERAGE_PRICE_OPERATION, sample, store.size(), 0);
+        return average;
+    }
+
+    /**
+     * Calculates the median price of tickets for the specified origin and destination using the columnar ticket store.
+     *
+     * @param store the columnar ticket store
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return the median price of tickets, or NaN if no tickets are found
+     */
+    public static double calculateMedianPrice(TicketStore store, String origin, String destination) {
+        Metrics.Sample sample = Metrics.start();
+        double[] prices = collectPrices(store, origin, destination);
+        double median = Quantiles.median(prices, prices.length);
+        Metrics.record(MEDIAN_PRICE_OPERATION, sample, store.size(), 0);
+        return median;
+    }
+
+    /**
+     * Calculates the difference between the average and median prices for the specified origin and destination
+     * using the columnar ticket store, in a single pass.
+     *
+     * @param store the columnar ticket store
+     * @param origin the origin name to filter tickets
+     * @param destination the destination name to filter tickets
+     * @return the difference between average and median prices
+     */
+    public static double calculateAverageAndMedianPriceDifference(TicketStore store, String origin, String destination) {
+        Metrics.Sample sample = Metrics.start();
+        double[] prices = collectPrices(store, origin, destination);
+        // The average must be taken before the median, which reorders the prices.
+        double avg = average(prices, prices.length);
+        double median = Quantiles.median(prices, prices.length);
+        Metrics.record(PRICE_DIFFERENCE_OPERATION, sample, store.size(), 0);
         return avg - median;
     }
+
+    private static double[] collectPrices(TicketStore store, String origin, String destination) {
+        SymbolTable symbols = store.symbols();
+        int originId = symbols.id(origin);
+        int destinationId = symbols.id(destination);
+        if (originId < 0 || destinationId < 0) {
+            return new double[0];
+        }
+
+        int[] originNames = store.originNames();
+        int[] destinationNames = store.destinationNames();
+        double[] storePrices = store.prices();
+        double[] prices = new double[INITIAL_CAPACITY];
+        int size = 0;
+        int[] range = store.routeRange(originId, destinationId);
+        int from = range == null ? 0 : range[0];
+        int to = range == null ? store.size() : range[1];
+        for (int i = from; i < to; i++) {
+            if (originNames[i] == originId && destinationNames[i] == destinationId) {
+                if (size == prices.length) {
+                    prices = Arrays.copyOf(prices, size * 2);
+                }
+                prices[size++] = storePrices[i];
+            }
+        }
+        return Arrays.copyOf(prices, size);
+    }
+
+    private static double average(double[] prices, int size) {
+        if (size == 0)
+            return Double.NaN;
+        // DoubleSummaryStatistics uses the same compensated summation as DoubleStream.average().
+        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        for (int i = 0; i < size; i++) {
+            statistics.accept(prices[i]);
+        }
+        return statistics.getAverage();
+    }
 }
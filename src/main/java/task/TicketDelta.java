@@ -0,0 +1,31 @@
+package task;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Record representing a change of the ticket data, as written to a {@link TicketDeltaLog}.
+ * <p>
+ * Each line of a delta log is a JSON object such as {@code {"op": "add", "ticket": {...}}}, where the ticket has
+ * the same format as in the tickets file.
+ * </p>
+ *
+ * @param op the operation
+ * @param ticket the ticket that is added or removed
+ */
+public record TicketDelta(Operation op, TicketData ticket) {
+    /**
+     * The kind of change.
+     */
+    public enum Operation {
+        /**
+         * A new ticket.
+         */
+        @SerializedName("add")
+        ADD,
+        /**
+         * A withdrawn ticket.
+         */
+        @SerializedName("remove")
+        REMOVE
+    }
+}
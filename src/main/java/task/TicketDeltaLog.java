@@ -0,0 +1,174 @@
+package task;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+
+/**
+ * Follower of an append-only NDJSON log of {@link TicketDelta}s.
+ * <p>
+ * The log remembers the byte offset up to which it has been read, so every {@link #poll()} only reads the bytes
+ * appended since the previous one, whatever the size of the data already applied. Only complete lines are consumed:
+ * a line still being written is read again once its newline is present. {@link #follow(Runnable)} blocks and polls
+ * whenever a {@link WatchService} reports a change of the file. A log that shrinks is assumed to have been replaced
+ * by a new one and is read again from its start.
+ * </p>
+ */
+public class TicketDeltaLog implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Consumer<? super TicketDelta> consumer;
+    private final Gson gson = TicketJsonReader.createGson();
+    private WatchService watchService;
+    private long offset;
+
+    /**
+     * Creates a follower of the log that passes every change read to the consumer.
+     *
+     * @param path the path of the log file, which does not need to exist yet
+     * @param consumer the consumer of the changes, called on the polling thread
+     */
+    public TicketDeltaLog(Path path, Consumer<? super TicketDelta> consumer) {
+        this.path = path;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Reads the complete lines appended to the log since the previous poll and passes their changes to the consumer.
+     * <p>
+     * Malformed lines are reported and skipped.
+     * </p>
+     *
+     * @return the number of changes read, or {@code -1} if an error occurs
+     */
+    public int poll() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < offset) {
+                offset = 0;
+            }
+            channel.position(offset);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = offset;
+            int count = 0;
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                byte[] bytes = buffer.array();
+                int start = 0;
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (bytes[i] == '\n') {
+                        line.write(bytes, start, i - start);
+                        position += line.size() + 1L;
+                        if (apply(line)) {
+                            count++;
+                        }
+                        offset = position;
+                        line.reset();
+                        start = i + 1;
+                    }
+                }
+                line.write(bytes, start, buffer.limit() - start);
+                buffer.clear();
+            }
+            return count;
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Polls the log, then keeps polling whenever the file changes until the log is closed.
+     *
+     * @param onChange called after every poll that read at least one change
+     * @throws IOException if the directory of the log cannot be watched
+     * @throws InterruptedException if the thread is interrupted while waiting for changes
+     */
+    public void follow(Runnable onChange) throws IOException, InterruptedException {
+        Path directory = path.toAbsolutePath().getParent();
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        synchronized (this) {
+            watchService = watcher;
+        }
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        if (poll() > 0) {
+            onChange.run();
+        }
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || path.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed && poll() > 0) {
+                    onChange.run();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // The log has been closed.
+        }
+    }
+
+    /**
+     * Stops following the log.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Returns the byte offset up to which the log has been read.
+     *
+     * @return the offset of the first unread line
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    private boolean apply(ByteArrayOutputStream line) {
+        String text = line.toString(StandardCharsets.UTF_8);
+        if (offset == 0 && text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+        if (text.isBlank()) {
+            return false;
+        }
+        try {
+            TicketDelta delta = gson.fromJson(text, TicketDelta.class);
+            if (delta == null || delta.op() == null || delta.ticket() == null) {
+                throw new JsonParseException("Incomplete ticket delta: " + text);
+            }
+            consumer.accept(delta);
+            return true;
+        } catch (JsonParseException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package task;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Record representing the criteria a ticket of a route must meet to be included in a query.
+ * <p>
+ * A filter always selects one route by origin and destination name and can further restrict the departure date
+ * range, the departure time of day, the number of stops and the carriers. Filters are created with
+ * {@link #route(String, String)} and refined with the {@code with...} methods, which return new filters.
+ * Times of day are compared with minute resolution, like the ticket format.
+ * </p>
+ *
+ * @param originName the origin name of the route
+ * @param destinationName the destination name of the route
+ * @param firstDepartureDate the first allowed departure date, or {@code null} for no lower bound
+ * @param lastDepartureDate the last allowed departure date (inclusive), or {@code null} for no upper bound
+ * @param earliestDepartureTime the start of the departure time window (inclusive), or {@code null} for any time
+ * @param latestDepartureTime the end of the departure time window (inclusive), or {@code null} for any time;
+ *                            a window ending before it starts wraps around midnight
+ * @param maxStops the maximum number of stops
+ * @param carriers the allowed carriers, or an empty set for any carrier
+ */
+public record TicketFilter(String originName,
+                           String destinationName,
+                           LocalDate firstDepartureDate,
+                           LocalDate lastDepartureDate,
+                           LocalTime earliestDepartureTime,
+                           LocalTime latestDepartureTime,
+                           int maxStops,
+                           Set<String> carriers) implements Predicate<TicketData> {
+    /**
+     * Validates the criteria and makes an unmodifiable copy of the carriers.
+     *
+     * @throws IllegalArgumentException if only one end of the time window is given or if {@code maxStops} is negative
+     */
+    public TicketFilter {
+        if ((earliestDepartureTime == null) != (latestDepartureTime == null)) {
+            throw new IllegalArgumentException("Both ends of the departure time window must be given");
+        }
+        if (maxStops < 0) {
+            throw new IllegalArgumentException("Maximum number of stops must not be negative: " + maxStops);
+        }
+        carriers = Set.copyOf(carriers);
+    }
+
+    /**
+     * Creates a filter that selects every ticket of the route.
+     *
+     * @param originName the origin name of the route
+     * @param destinationName the destination name of the route
+     * @return a new filter
+     */
+    public static TicketFilter route(String originName, String destinationName) {
+        return new TicketFilter(originName, destinationName, null, null, null, null, Integer.MAX_VALUE, Set.of());
+    }
+
+    /**
+     * Returns a copy of this filter restricted to a departure date range.
+     *
+     * @param first the first allowed departure date, or {@code null} for no lower bound
+     * @param last the last allowed departure date (inclusive), or {@code null} for no upper bound
+     * @return a new filter
+     */
+    public TicketFilter withDepartureDates(LocalDate first, LocalDate last) {
+        return new TicketFilter(originName, destinationName, first, last, earliestDepartureTime, latestDepartureTime,
+                maxStops, carriers);
+    }
+
+    /**
+     * Returns a copy of this filter restricted to a departure time-of-day window.
+     *
+     * @param earliest the start of the window (inclusive)
+     * @param latest the end of the window (inclusive); if it is before {@code earliest}, the window wraps around midnight
+     * @return a new filter
+     */
+    public TicketFilter withDepartureTimes(LocalTime earliest, LocalTime latest) {
+        return new TicketFilter(originName, destinationName, firstDepartureDate, lastDepartureDate, earliest, latest,
+                maxStops, carriers);
+    }
+
+    /**
+     * Returns a copy of this filter restricted to tickets with at most the given number of stops.
+     *
+     * @param stops the maximum number of stops
+     * @return a new filter
+     */
+    public TicketFilter withMaxStops(int stops) {
+        return new TicketFilter(originName, destinationName, firstDepartureDate, lastDepartureDate,
+                earliestDepartureTime, latestDepartureTime, stops, carriers);
+    }
+
+    /**
+     * Returns a copy of this filter restricted to the given carriers.
+     *
+     * @param allowed the allowed carriers, or an empty set for any carrier
+     * @return a new filter
+     */
+    public TicketFilter withCarriers(Set<String> allowed) {
+        return new TicketFilter(originName, destinationName, firstDepartureDate, lastDepartureDate,
+                earliestDepartureTime, latestDepartureTime, maxStops, allowed);
+    }
+
+    /**
+     * Checks whether the ticket meets all criteria of the filter.
+     *
+     * @param ticket the ticket to check
+     * @return {@code true} if the ticket is selected by the filter
+     */
+    @Override
+    public boolean test(TicketData ticket) {
+        return ticket.originName().equals(originName)
+                && ticket.destinationName().equals(destinationName)
+                && (firstDepartureDate == null || !ticket.departureDate().isBefore(firstDepartureDate))
+                && (lastDepartureDate == null || !ticket.departureDate().isAfter(lastDepartureDate))
+                && acceptsDepartureMinute(minuteOfDay(ticket.departureTime()))
+                && ticket.stops() <= maxStops
+                && (carriers.isEmpty() || carriers.contains(ticket.carrier()));
+    }
+
+    /**
+     * Checks whether a departure at the given minute of the day falls into the time window.
+     */
+    boolean acceptsDepartureMinute(int minute) {
+        if (earliestDepartureTime == null) {
+            return true;
+        }
+        int earliest = minuteOfDay(earliestDepartureTime);
+        int latest = minuteOfDay(latestDepartureTime);
+        if (earliest <= latest) {
+            return minute >= earliest && minute <= latest;
+        }
+        return minute >= earliest || minute <= latest;
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -2,18 +2,70 @@ package task;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
-import java.io.FileReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Utility class for reading ticket data from JSON file.
+ * <p>
+ * Besides {@link #readTickets(String)}, which loads the whole file into memory, the reader offers a streaming
+ * mode ({@link #readTickets(String, Consumer)} and {@link #streamTickets(String)}) that walks the
+ * {@code "tickets"} array one element at a time, so memory use does not depend on the size of the file.
+ * </p>
+ * <p>
+ * Files whose name ends with {@code .ndjson} or {@code .jsonl} are read as newline-delimited JSON, with one ticket
+ * object per line instead of the {@code "tickets"} array. Gzip-compressed files of either format are detected by
+ * their header and decompressed on the fly. {@link #collectTickets(String, Collector)} parses uncompressed NDJSON
+ * files in parallel, in byte ranges aligned on line boundaries.
+ * </p>
+ * <p>
+ * When a {@link MetricsSink} is installed with {@link Metrics#setSink(MetricsSink)}, the methods that read a whole
+ * file report their latency, allocations, the number of tickets and the size of the file, as well as the I/O errors
+ * they print.
+ * </p>
  */
 public class TicketJsonReader {
+    private static final String TICKETS_PROPERTY = "tickets";
+    private static final int DEFAULT_MIN_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int GZIP_MAGIC = 0x8B1F;
+    static final String READ_OPERATION = "reader.readTickets";
+    static final String STREAMING_READ_OPERATION = "reader.readTickets.streaming";
+    static final String COLLECT_OPERATION = "reader.collectTickets";
+
     /**
      * Reads a list of tickets from the specified JSON file.
      *
@@ -21,16 +73,25 @@ public class TicketJsonReader {
      * @return a list of {@link TicketData} objects, or {@code null} if an error occurs or if the file does not contain any tickets
      */
     public static List<TicketData> readTickets(String filepath) {
-        GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(LocalDate.class, new LocalDateDeserializer());
-        builder.registerTypeAdapter(LocalTime.class, new LocalTimeDeserializer());
-        Gson gson = builder.create();
+        Metrics.Sample sample = Metrics.start();
+        List<TicketData> tickets = isNdjson(filepath)
+                ? collect(filepath, Collectors.toList(), DEFAULT_MIN_CHUNK_SIZE, READ_OPERATION, new LongAdder())
+                : readDocument(filepath);
+        if (tickets != null) {
+            Metrics.record(READ_OPERATION, sample, tickets.size(), inputBytes(sample, filepath));
+        }
+        return tickets;
+    }
+
+    private static List<TicketData> readDocument(String filepath) {
+        Gson gson = createGson();
 
         TicketDataWrapper ticketDataWrapper = null;
 
-        try (FileReader reader = new FileReader(filepath, StandardCharsets.UTF_8)) {
+        try (Reader reader = openReader(filepath)) {
             ticketDataWrapper = gson.fromJson(reader, TicketDataWrapper.class);
         } catch (IOException e) {
+            Metrics.error(READ_OPERATION, e);
             e.printStackTrace();
         }
 
@@ -42,4 +103,459 @@ public class TicketJsonReader {
         }
         return ticketDataWrapper.tickets();
     }
+
+    /**
+     * Reads tickets from the specified JSON file one at a time and passes each of them to the consumer.
+     * <p>
+     * Only the ticket currently being deserialized is held in memory, so this method can process files
+     * that are much larger than the available heap.
+     * </p>
+     *
+     * @param filepath the path to the JSON file
+     * @param consumer the consumer that receives every ticket in file order
+     * @return the number of tickets read, or {@code -1} if an error occurs or if the file does not contain any tickets
+     * @throws JsonParseException if a ticket is malformed
+     */
+    public static long readTickets(String filepath, Consumer<? super TicketData> consumer) {
+        Metrics.Sample sample = Metrics.start();
+        long count = forEachTicket(filepath, consumer, STREAMING_READ_OPERATION);
+        if (count >= 0) {
+            Metrics.record(STREAMING_READ_OPERATION, sample, count, inputBytes(sample, filepath));
+        }
+        return count;
+    }
+
+    /**
+     * Passes every ticket of the file to the consumer, reporting I/O errors as errors of the given operation.
+     *
+     * @return the number of tickets read, or {@code -1} if an error occurs or if the file does not contain any tickets
+     */
+    private static long forEachTicket(String filepath, Consumer<? super TicketData> consumer, String operation) {
+        Gson gson = createGson();
+
+        if (isNdjson(filepath)) {
+            try (BufferedReader reader = new BufferedReader(openReader(filepath))) {
+                return readLines(gson, reader, consumer);
+            } catch (IOException e) {
+                Metrics.error(operation, e);
+                e.printStackTrace();
+                return -1;
+            }
+        }
+        try (JsonReader jsonReader = gson.newJsonReader(openReader(filepath))) {
+            if (!moveToTickets(jsonReader)) {
+                return -1;
+            }
+            long count = 0;
+            while (jsonReader.hasNext()) {
+                consumer.accept(gson.fromJson(jsonReader, TicketData.class));
+                count++;
+            }
+            jsonReader.endArray();
+            return count;
+        } catch (IOException e) {
+            Metrics.error(operation, e);
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Opens a lazily populated stream of the tickets in the specified JSON file.
+     * <p>
+     * Tickets are deserialized on demand as the stream is consumed. The returned stream holds the file open
+     * and must be closed, preferably with a try-with-resources statement. An empty stream is returned if the
+     * file does not contain a {@code "tickets"} array.
+     * </p>
+     *
+     * @param filepath the path to the JSON file
+     * @return a sequential stream of {@link TicketData} objects in file order
+     * @throws IOException if the file cannot be opened or its header cannot be read
+     */
+    public static Stream<TicketData> streamTickets(String filepath) throws IOException {
+        Stream<TicketData> tickets = streamTicketsIfPresent(filepath);
+        return tickets == null ? Stream.empty() : tickets;
+    }
+
+    /**
+     * Opens a lazily populated stream of the tickets in the specified file like {@link #streamTickets(String)},
+     * but returns {@code null} instead of an empty stream if a JSON file does not contain a {@code "tickets"} array.
+     *
+     * @param filepath the path to the JSON or NDJSON file
+     * @return a sequential stream of {@link TicketData} objects in file order, or {@code null} if there is no
+     * tickets array
+     * @throws IOException if the file cannot be opened or its header cannot be read
+     */
+    static Stream<TicketData> streamTicketsIfPresent(String filepath) throws IOException {
+        if (!isNdjson(filepath)) {
+            return openTicketStream(openReader(filepath));
+        }
+        Gson gson = createGson();
+        BufferedReader reader = new BufferedReader(openReader(filepath));
+        return reader.lines()
+                .map(TicketJsonReader::stripBom)
+                .filter(line -> !line.isBlank())
+                .map(line -> gson.fromJson(line, TicketData.class))
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Reads all tickets of the specified file into a mutable result container.
+     * <p>
+     * Uncompressed NDJSON files larger than one megabyte are split into byte ranges that start and end on line
+     * boundaries; the ranges are parsed concurrently on the common fork/join pool, each into its own container,
+     * and the containers are combined in file order. The result is therefore the same as if every ticket had been
+     * accumulated sequentially, provided the combiner of the collector appends the right container to the left one,
+     * as {@link Collectors#toList()} and {@link RouteStatistics#combine(RouteStatistics)} do. Other files are
+     * read sequentially into a single container.
+     * </p>
+     *
+     * @param filepath the path to the JSON or NDJSON file, optionally gzip-compressed
+     * @param collector the collector that accumulates the tickets
+     * @param <A> the type of the mutable result container
+     * @param <R> the type of the result
+     * @return the result, or {@code null} if an error occurs or if a JSON file does not contain any tickets
+     * @throws JsonParseException if a ticket is malformed
+     */
+    public static <A, R> R collectTickets(String filepath, Collector<? super TicketData, A, R> collector) {
+        return collectTickets(filepath, collector, DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens a lazily populated stream of the tickets read from the given reader.
+     * <p>
+     * Closing the returned stream closes the reader. I/O errors that occur while the stream is consumed are
+     * rethrown as {@link UncheckedIOException}.
+     * </p>
+     *
+     * @param reader the reader supplying the JSON document
+     * @return a sequential stream of {@link TicketData} objects in document order
+     * @throws IOException if the header of the document cannot be read
+     */
+    public static Stream<TicketData> streamTickets(Reader reader) throws IOException {
+        Stream<TicketData> tickets = openTicketStream(reader);
+        return tickets == null ? Stream.empty() : tickets;
+    }
+
+    /**
+     * Opens a stream of the tickets read from the given reader, or closes the reader and returns {@code null} if
+     * the document does not contain a {@code "tickets"} array.
+     */
+    private static Stream<TicketData> openTicketStream(Reader reader) throws IOException {
+        Gson gson = createGson();
+        JsonReader jsonReader = gson.newJsonReader(reader);
+
+        boolean hasTickets;
+        try {
+            hasTickets = moveToTickets(jsonReader);
+        } catch (IOException | RuntimeException e) {
+            jsonReader.close();
+            throw e;
+        }
+        if (!hasTickets) {
+            jsonReader.close();
+            return null;
+        }
+
+        Spliterator<TicketData> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super TicketData> action) {
+                try {
+                    if (!jsonReader.hasNext()) {
+                        return false;
+                    }
+                    action.accept(gson.fromJson(jsonReader, TicketData.class));
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                jsonReader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reads all tickets of the specified file, splitting uncompressed NDJSON files into chunks of at least
+     * the given size.
+     */
+    static <A, R> R collectTickets(String filepath, Collector<? super TicketData, A, R> collector, long minChunkSize) {
+        Metrics.Sample sample = Metrics.start();
+        LongAdder tickets = new LongAdder();
+        R result = collect(filepath, collector, minChunkSize, COLLECT_OPERATION, tickets);
+        if (result != null) {
+            Metrics.record(COLLECT_OPERATION, sample, tickets.sum(), inputBytes(sample, filepath));
+        }
+        return result;
+    }
+
+    /**
+     * Reads all tickets of the file into a container, adding their number to the given counter and reporting
+     * I/O errors as errors of the given operation.
+     */
+    private static <A, R> R collect(String filepath, Collector<? super TicketData, A, R> collector, long minChunkSize,
+                                    String operation, LongAdder tickets) {
+        A container = collector.supplier().get();
+        try {
+            if (isNdjson(filepath) && !isGzip(filepath)) {
+                container = collectChunks(Path.of(filepath), collector, minChunkSize, tickets);
+            } else {
+                A result = container;
+                long count = forEachTicket(filepath, ticket -> collector.accumulator().accept(result, ticket), operation);
+                if (count < 0) {
+                    return null;
+                }
+                tickets.add(count);
+            }
+        } catch (IOException e) {
+            Metrics.error(operation, e);
+            e.printStackTrace();
+            return null;
+        }
+        return collector.finisher().apply(container);
+    }
+
+    /**
+     * Returns the size of the file if the operation is measured, or {@code 0} if it is not or if the size is unknown.
+     * For compressed files this is the compressed size.
+     */
+    private static long inputBytes(Metrics.Sample sample, String filepath) {
+        if (sample == null) {
+            return 0;
+        }
+        try {
+            return Files.size(Path.of(filepath));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses newline-aligned byte ranges of an NDJSON file in parallel and combines their containers in file order.
+     */
+    private static <A> A collectChunks(Path path, Collector<? super TicketData, A, ?> collector, long minChunkSize,
+                                       LongAdder tickets) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int maxChunks = Math.max(1, pool.getParallelism() * CHUNKS_PER_THREAD);
+            int chunks = (int) Math.max(1, Math.min(maxChunks, size / minChunkSize));
+            if (chunks == 1) {
+                return collectRange(channel, 0, size, collector, tickets);
+            }
+
+            List<Callable<A>> tasks = new ArrayList<>(chunks);
+            long start = 0;
+            for (int i = 1; i <= chunks && start < size; i++) {
+                long end = i == chunks ? size : lineStart(channel, Math.max(start, size * i / chunks));
+                if (end > start) {
+                    long from = start;
+                    tasks.add(() -> collectRange(channel, from, end, collector, tickets));
+                    start = end;
+                }
+            }
+            A result = null;
+            for (Future<A> partial : pool.invokeAll(tasks)) {
+                A container = join(partial);
+                result = result == null ? container : collector.combiner().apply(result, container);
+            }
+            return result;
+        }
+    }
+
+    private static <A> A collectRange(FileChannel channel, long from, long to,
+                                      Collector<? super TicketData, A, ?> collector, LongAdder tickets)
+            throws IOException {
+        A container = collector.supplier().get();
+        Reader reader = new InputStreamReader(new RangeInputStream(channel, from, to), StandardCharsets.UTF_8);
+        tickets.add(readLines(createGson(), new BufferedReader(reader),
+                ticket -> collector.accumulator().accept(container, ticket)));
+        return container;
+    }
+
+    /**
+     * Returns the position just after the first line feed at or after the given position, or the end of the file.
+     */
+    private static long lineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long size = channel.size();
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static <A> A join(Future<A> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a chunk", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Reads one ticket per non-blank line and passes each of them to the consumer.
+     *
+     * @return the number of tickets read
+     */
+    private static long readLines(Gson gson, BufferedReader reader, Consumer<? super TicketData> consumer)
+            throws IOException {
+        long count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = stripBom(line);
+            if (!line.isBlank()) {
+                consumer.accept(gson.fromJson(line, TicketData.class));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * Checks whether the file name denotes newline-delimited JSON, ignoring a {@code .gz} suffix.
+     */
+    static boolean isNdjson(String filepath) {
+        String name = filepath.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl");
+    }
+
+    private static boolean isGzip(String filepath) throws IOException {
+        try (InputStream in = Files.newInputStream(Path.of(filepath))) {
+            return (in.read() | in.read() << 8) == GZIP_MAGIC;
+        }
+    }
+
+    /**
+     * Opens a UTF-8 reader of the file, decompressing it if it starts with the gzip header.
+     */
+    private static Reader openReader(String filepath) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(filepath)));
+        try {
+            in.mark(2);
+            boolean gzip = (in.read() | in.read() << 8) == GZIP_MAGIC;
+            in.reset();
+            if (gzip) {
+                in = new GZIPInputStream(in);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a {@link Gson} instance configured with the date and time deserializers used by the ticket format.
+     * <p>
+     * Strings are interned into a symbol table of the instance by an {@link InterningStringAdapter}, so every
+     * load shares one object per distinct city name and carrier. The instance must therefore be confined to one
+     * thread; the parallel NDJSON reader uses one per chunk.
+     * </p>
+     *
+     * @return a configured {@link Gson} instance
+     */
+    static Gson createGson() {
+        GsonBuilder builder = new GsonBuilder();
+        builder.registerTypeAdapter(String.class, new InterningStringAdapter(new SymbolTable()));
+        builder.registerTypeAdapter(LocalDate.class, new LocalDateDeserializer());
+        builder.registerTypeAdapter(LocalTime.class, new LocalTimeDeserializer());
+        return builder.create();
+    }
+
+    /**
+     * Advances the reader into the {@code "tickets"} array of the top-level object, skipping any other properties.
+     *
+     * @param jsonReader the reader positioned at the start of the document
+     * @return {@code true} if the reader is now positioned at the first element of the array,
+     * {@code false} if the document does not contain a {@code "tickets"} array
+     * @throws IOException if the document cannot be read
+     * @throws JsonParseException if the document is not a JSON object
+     */
+    private static boolean moveToTickets(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new JsonParseException("Expected a JSON object at " + jsonReader.getPath());
+        }
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (TICKETS_PROPERTY.equals(name) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                jsonReader.beginArray();
+                return true;
+            }
+            jsonReader.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Input stream over a byte range of a file channel, using positional reads so that the channel can be shared.
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        RangeInputStream(FileChannel channel, long from, long to) {
+            this.channel = channel;
+            this.position = from;
+            this.end = to;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int count = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position)), position);
+            if (count > 0) {
+                position += count;
+            }
+            return count;
+        }
+    }
 }
@@ -0,0 +1,234 @@
+package task;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of tickets that answers {@link TicketFilter} queries without scanning unselected tickets.
+ * <p>
+ * For every route the rows are kept in primitive arrays sorted by departure, so a departure date range resolves to
+ * a contiguous row range by binary search. Each route also has one bitmap of rows per carrier and per number of
+ * stops; the bitmaps of the allowed carriers and stop counts are combined before the scan, which then visits only
+ * rows meeting every indexed criterion and checks the departure time of day from a primitive column.
+ * </p>
+ * <p>
+ * The results are identical to {@link TicketDataAnalyzer#calculateRouteStatistics(List, TicketFilter)} over the
+ * tickets the index was built from: prices are summed in the original order of the tickets. The index is
+ * immutable and can be shared between threads.
+ * </p>
+ */
+public class TicketQueryIndex {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int INITIAL_MATCHES = 16;
+
+    private final SymbolTable carriers;
+    private final Map<String, Map<String, RouteRows>> routes;
+
+    private TicketQueryIndex(SymbolTable carriers, Map<String, Map<String, RouteRows>> routes) {
+        this.carriers = carriers;
+        this.routes = routes;
+    }
+
+    /**
+     * Builds the index of the specified tickets.
+     *
+     * @param tickets the tickets to index
+     * @return the query index
+     */
+    public static TicketQueryIndex build(Iterable<TicketData> tickets) {
+        SymbolTable carriers = new SymbolTable();
+        Map<String, Map<String, List<Integer>>> positionsByRoute = new HashMap<>();
+        List<TicketData> all = new ArrayList<>();
+        for (TicketData ticket : tickets) {
+            carriers.intern(ticket.carrier());
+            positionsByRoute.computeIfAbsent(ticket.originName(), origin -> new HashMap<>())
+                    .computeIfAbsent(ticket.destinationName(), destination -> new ArrayList<>())
+                    .add(all.size());
+            all.add(ticket);
+        }
+
+        Map<String, Map<String, RouteRows>> routes = new HashMap<>();
+        for (Map.Entry<String, Map<String, List<Integer>>> originEntry : positionsByRoute.entrySet()) {
+            Map<String, RouteRows> destinations = new HashMap<>();
+            for (Map.Entry<String, List<Integer>> destinationEntry : originEntry.getValue().entrySet()) {
+                destinations.put(destinationEntry.getKey(), new RouteRows(all, destinationEntry.getValue(), carriers));
+            }
+            routes.put(originEntry.getKey(), destinations);
+        }
+        return new TicketQueryIndex(carriers, routes);
+    }
+
+    /**
+     * Computes the statistics of the tickets selected by the filter.
+     *
+     * @param filter the criteria of the tickets to include
+     * @return the report of the selected tickets, which is empty if no ticket is selected
+     */
+    public RouteReport query(TicketFilter filter) {
+        RouteKey route = new RouteKey(filter.originName(), filter.destinationName());
+        RouteRows rows = routes.getOrDefault(filter.originName(), Map.of()).get(filter.destinationName());
+        if (rows == null) {
+            return new RouteReport(route, 0, Map.of(), Double.NaN, Double.NaN);
+        }
+
+        int from = filter.firstDepartureDate() == null ? 0 : rows.firstRowAtOrAfter(startMinute(filter.firstDepartureDate()));
+        int to = filter.lastDepartureDate() == null ? rows.size()
+                : rows.firstRowAtOrAfter(startMinute(filter.lastDepartureDate().plusDays(1)));
+        BitSet candidates = candidates(rows, filter);
+
+        long[] minNanos = new long[carriers.size()];
+        Arrays.fill(minNanos, Long.MAX_VALUE);
+        long[] matches = new long[INITIAL_MATCHES];
+        int count = 0;
+        int row = candidates == null ? from : candidates.nextSetBit(from);
+        while (row >= 0 && row < to) {
+            if (filter.acceptsDepartureMinute(Math.floorMod(rows.departures[row], MINUTES_PER_DAY))) {
+                int carrier = rows.carriers[row];
+                if (rows.flightNanos[row] < minNanos[carrier]) {
+                    minNanos[carrier] = rows.flightNanos[row];
+                }
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = (long) rows.positions[row] << 32 | row;
+            }
+            row = candidates == null ? row + 1 : candidates.nextSetBit(row + 1);
+        }
+
+        Map<String, Duration> minFlightTimes = new HashMap<>();
+        for (int carrier = 0; carrier < minNanos.length; carrier++) {
+            if (minNanos[carrier] != Long.MAX_VALUE) {
+                minFlightTimes.put(carriers.symbol(carrier), Duration.ofNanos(minNanos[carrier]));
+            }
+        }
+        // Sum the prices in the original ticket order so that the average is the same as a sequential scan.
+        Arrays.sort(matches, 0, count);
+        double[] prices = new double[count];
+        DoubleSummaryStatistics priceStatistics = new DoubleSummaryStatistics();
+        for (int i = 0; i < count; i++) {
+            prices[i] = rows.prices[(int) matches[i]];
+            priceStatistics.accept(prices[i]);
+        }
+        double average = count == 0 ? Double.NaN : priceStatistics.getAverage();
+        return new RouteReport(route, count, minFlightTimes, average, Quantiles.median(prices, count));
+    }
+
+    /**
+     * Combines the carrier and stop bitmaps selected by the filter.
+     *
+     * @return the rows meeting the carrier and stop criteria, or {@code null} if the filter does not restrict them
+     */
+    private BitSet candidates(RouteRows rows, TicketFilter filter) {
+        BitSet candidates = null;
+        if (!filter.carriers().isEmpty()) {
+            candidates = new BitSet(rows.size());
+            for (String carrier : filter.carriers()) {
+                int id = carriers.id(carrier);
+                if (id >= 0 && rows.carrierRows[id] != null) {
+                    candidates.or(rows.carrierRows[id]);
+                }
+            }
+        }
+        if (filter.maxStops() < rows.stopRows.length - 1) {
+            BitSet stops = new BitSet(rows.size());
+            for (int count = 0; count <= filter.maxStops(); count++) {
+                if (rows.stopRows[count] != null) {
+                    stops.or(rows.stopRows[count]);
+                }
+            }
+            if (candidates == null) {
+                candidates = stops;
+            } else {
+                candidates.and(stops);
+            }
+        }
+        return candidates;
+    }
+
+    private static long startMinute(LocalDate date) {
+        return date.toEpochDay() * MINUTES_PER_DAY;
+    }
+
+    /**
+     * Columns of the tickets of one route, sorted by departure, with their carrier and stop bitmaps.
+     */
+    private static final class RouteRows {
+        final long[] departures;
+        final long[] flightNanos;
+        final int[] carriers;
+        final int[] positions;
+        final double[] prices;
+        final BitSet[] carrierRows;
+        final BitSet[] stopRows;
+
+        RouteRows(List<TicketData> tickets, List<Integer> routePositions, SymbolTable carrierSymbols) {
+            int size = routePositions.size();
+            long[] unsortedDepartures = new long[size];
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                TicketData ticket = tickets.get(routePositions.get(i));
+                unsortedDepartures[i] = TicketStore.epochMinute(ticket.departureDate(), ticket.departureTime());
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(unsortedDepartures[a], unsortedDepartures[b]));
+
+            departures = new long[size];
+            flightNanos = new long[size];
+            carriers = new int[size];
+            positions = new int[size];
+            prices = new double[size];
+            carrierRows = new BitSet[carrierSymbols.size()];
+            int maxStops = 0;
+            for (int row = 0; row < size; row++) {
+                maxStops = Math.max(maxStops, tickets.get(routePositions.get(row)).stops());
+            }
+            stopRows = new BitSet[maxStops + 1];
+            for (int row = 0; row < size; row++) {
+                int position = routePositions.get(order[row]);
+                TicketData ticket = tickets.get(position);
+                departures[row] = unsortedDepartures[order[row]];
+                flightNanos[row] = CarrierMinimums.flightNanos(ticket);
+                carriers[row] = carrierSymbols.id(ticket.carrier());
+                positions[row] = position;
+                prices[row] = ticket.price();
+                bitmap(carrierRows, carriers[row], size).set(row);
+                bitmap(stopRows, Math.max(0, ticket.stops()), size).set(row);
+            }
+        }
+
+        int size() {
+            return departures.length;
+        }
+
+        /**
+         * Returns the first row departing at or after the given epoch minute, or the number of rows if there is none.
+         */
+        int firstRowAtOrAfter(long minute) {
+            int low = 0;
+            int high = departures.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (departures[middle] < minute) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static BitSet bitmap(BitSet[] bitmaps, int index, int size) {
+            if (bitmaps[index] == null) {
+                bitmaps[index] = new BitSet(size);
+            }
+            return bitmaps[index];
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package task;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Long-running local HTTP service that answers route queries over tickets loaded once.
+ * <p>
+ * The tickets are indexed by route with a {@link RouteIndex} and computed {@link RouteReport}s are kept in a
+ * size-bounded LRU cache. Reloading the dataset swaps the index and the cache atomically, so queries never see
+ * results of an older dataset. Requests are handled on virtual threads when the runtime supports them and on a
+ * cached thread pool otherwise. The service listens on the loopback interface only and provides:
+ * </p>
+ * <ul>
+ *     <li>{@code GET /min-flight-times?origin=...&destination=...} — minimum flight minutes per carrier;</li>
+ *     <li>{@code GET /price-difference?origin=...&destination=...} — average, median and their difference;</li>
+ *     <li>{@code POST /reload} — reloads the dataset.</li>
+ * </ul>
+ */
+public class TicketQueryServer implements AutoCloseable {
+    /**
+     * The default maximum number of cached route reports.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static final Gson gson = new GsonBuilder().serializeNulls().create();
+
+    private final Supplier<List<TicketData>> loader;
+    private final int cacheSize;
+    private volatile Dataset dataset;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Creates a server over the tickets supplied by the loader. No data is loaded until {@link #reload()} is called.
+     *
+     * @param loader the supplier of the tickets, which returns {@code null} if they cannot be read
+     * @param cacheSize the maximum number of cached route reports
+     * @throws IllegalArgumentException if {@code cacheSize} is not positive
+     */
+    public TicketQueryServer(Supplier<List<TicketData>> loader, int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + cacheSize);
+        }
+        this.loader = loader;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Loads the tickets and replaces the current dataset, discarding all cached results.
+     *
+     * @return the number of loaded tickets, or {@code -1} if the tickets could not be read,
+     * in which case the current dataset is kept
+     */
+    public int reload() {
+        List<TicketData> tickets = loader.get();
+        if (tickets == null) {
+            return -1;
+        }
+        dataset = new Dataset(RouteIndex.build(tickets), new LruCache<>(cacheSize));
+        return tickets.size();
+    }
+
+    /**
+     * Returns the report of the specified route, computing and caching it if needed.
+     *
+     * @param origin the origin name of the route
+     * @param destination the destination name of the route
+     * @return the report of the route
+     * @throws IllegalStateException if no dataset has been loaded
+     */
+    public RouteReport query(String origin, String destination) {
+        Dataset current = dataset;
+        if (current == null) {
+            throw new IllegalStateException("No dataset loaded");
+        }
+        RouteKey route = new RouteKey(origin, destination);
+        RouteReport report = current.cache.get(route);
+        if (report == null) {
+            report = RouteReport.of(current.index.statistics(origin, destination));
+            current.cache.put(route, report);
+        }
+        return report;
+    }
+
+    /**
+     * Starts listening on the loopback interface.
+     *
+     * @param port the port to listen on, or 0 to pick a free port
+     * @throws IOException if the server cannot be started
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/min-flight-times", exchange -> handle(exchange, "GET", this::minFlightTimes));
+        server.createContext("/price-difference", exchange -> handle(exchange, "GET", this::priceDifference));
+        server.createContext("/reload", exchange -> handle(exchange, "POST", this::reloadResponse));
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port
+     * @throws IllegalStateException if the server has not been started
+     */
+    public int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Server not started");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server and its request threads.
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    private JsonObject minFlightTimes(Map<String, String> parameters) {
+        RouteReport report = query(parameters.get("origin"), parameters.get("destination"));
+        JsonObject carriers = new JsonObject();
+        for (Map.Entry<String, Duration> entry : report.minFlightTimes().entrySet()) {
+            carriers.addProperty(entry.getKey(), entry.getValue().toMinutes());
+        }
+        JsonObject response = routeObject(report);
+        response.add("minFlightMinutes", carriers);
+        return response;
+    }
+
+    private JsonObject priceDifference(Map<String, String> parameters) {
+        RouteReport report = query(parameters.get("origin"), parameters.get("destination"));
+        JsonObject response = routeObject(report);
+        response.addProperty("averagePrice", finiteOrNull(report.averagePrice()));
+        response.addProperty("medianPrice", finiteOrNull(report.medianPrice()));
+        response.addProperty("difference", finiteOrNull(report.averageAndMedianPriceDifference()));
+        return response;
+    }
+
+    private JsonObject reloadResponse(Map<String, String> parameters) {
+        JsonObject response = new JsonObject();
+        response.addProperty("tickets", reload());
+        return response;
+    }
+
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        // The error responses are sent inside the try block, before the exchange is closed.
+        try (exchange) {
+            try {
+                if (!exchange.getRequestMethod().equals(method)) {
+                    send(exchange, 405, error("Method not allowed"));
+                    return;
+                }
+                Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+                if (method.equals("GET") && (parameters.get("origin") == null || parameters.get("destination") == null)) {
+                    send(exchange, 400, error("Parameters origin and destination are required"));
+                    return;
+                }
+                send(exchange, 200, handler.handle(parameters));
+            } catch (IllegalStateException e) {
+                send(exchange, 503, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                send(exchange, 500, error("Internal error"));
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonObject body) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static JsonObject routeObject(RouteReport report) {
+        JsonObject object = new JsonObject();
+        object.addProperty("origin", report.route().originName());
+        object.addProperty("destination", report.route().destinationName());
+        object.addProperty("tickets", report.count());
+        return object;
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject object = new JsonObject();
+        object.addProperty("error", message);
+        return object;
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor if the runtime provides one, or a cached thread pool otherwise.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        JsonObject handle(Map<String, String> parameters);
+    }
+
+    /**
+     * A loaded dataset together with the cache of results computed from it.
+     */
+    private record Dataset(RouteIndex index, LruCache<RouteKey, RouteReport> cache) {
+    }
+
+    /**
+     * Size-bounded, thread-safe cache that evicts the least recently used entry.
+     */
+    private static final class LruCache<K, V> {
+        private final Map<K, V> map;
+
+        LruCache(int maxSize) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized V get(K key) {
+            return map.get(key);
+        }
+
+        synchronized void put(K key, V value) {
+            map.put(key, value);
+        }
+    }
+}
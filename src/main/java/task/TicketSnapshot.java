@@ -0,0 +1,305 @@
+package task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary columnar snapshot of a {@link TicketStore}.
+ * <p>
+ * A JSON dump is converted once with {@link #write(TicketStore, String)}; later runs load the snapshot with
+ * {@link #read(String)}, which memory-maps the file and copies each column into a primitive array in bulk, with no
+ * parsing or per-ticket object construction. Rows are grouped by route when written and the route index is stored
+ * in the header, so the loaded store answers route queries by scanning only the rows of that route.
+ * </p>
+ * <p>
+ * Layout (little-endian): a 32-byte header with the magic number, format version, row, symbol and route counts
+ * and the offset of the column data; the symbol dictionary as length-prefixed UTF-8 strings; the route index as
+ * (origin name id, destination name id, first row, row count) entries; then, 8-byte aligned, the columns origin,
+ * origin name, destination, destination name, carrier and stops as {@code int}, departure and arrival as
+ * {@code long} epoch minutes, and price as {@code double}.
+ * </p>
+ */
+public class TicketSnapshot {
+    private static final int MAGIC = 0x544B5331;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MAX_MAPPING = Integer.MAX_VALUE & ~7L;
+
+    /**
+     * Writes the store to a snapshot file, replacing the file if it exists.
+     *
+     * @param store the store to write
+     * @param filepath the path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(TicketStore store, String filepath) throws IOException {
+        int size = store.size();
+        int[] originNames = store.originNames();
+        int[] destinationNames = store.destinationNames();
+
+        // Group rows by route with a stable counting sort, keeping routes in order of first appearance.
+        Map<Long, int[]> routes = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            routes.computeIfAbsent(TicketStore.routeKey(originNames[i], destinationNames[i]), key -> new int[2])[1]++;
+        }
+        int start = 0;
+        for (int[] range : routes.values()) {
+            range[0] = start;
+            start += range[1];
+            range[1] = range[0];
+        }
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            int[] range = routes.get(TicketStore.routeKey(originNames[i], destinationNames[i]));
+            order[range[1]++] = i;
+        }
+
+        SymbolTable symbols = store.symbols();
+        byte[][] encodedSymbols = new byte[symbols.size()][];
+        long dictionarySize = 0;
+        for (int id = 0; id < symbols.size(); id++) {
+            encodedSymbols[id] = symbols.symbol(id).getBytes(StandardCharsets.UTF_8);
+            dictionarySize += Integer.BYTES + encodedSymbols[id].length;
+        }
+        long dataOffset = align(HEADER_SIZE + dictionarySize + (long) routes.size() * 4 * Integer.BYTES);
+
+        try (FileChannel channel = FileChannel.open(Path.of(filepath), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ColumnWriter writer = new ColumnWriter(channel);
+            writer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(symbols.size()).putInt(routes.size()).putInt(0)
+                    .putLong(dataOffset);
+            for (byte[] symbol : encodedSymbols) {
+                writer.putInt(symbol.length).put(symbol);
+            }
+            for (Map.Entry<Long, int[]> route : routes.entrySet()) {
+                long key = route.getKey();
+                int[] range = route.getValue();
+                writer.putInt((int) (key >>> 32)).putInt((int) key).putInt(range[0]).putInt(range[1] - range[0]);
+            }
+            writer.padTo(dataOffset);
+
+            writer.putInts(store.origins(), order);
+            writer.putInts(originNames, order);
+            writer.putInts(store.destinations(), order);
+            writer.putInts(destinationNames, order);
+            writer.putInts(store.carriers(), order);
+            writer.putInts(store.stops(), order);
+            writer.putLongs(store.departures(), order);
+            writer.putLongs(store.arrivals(), order);
+            writer.putDoubles(store.prices(), order);
+            writer.flush();
+        }
+    }
+
+    /**
+     * Loads a snapshot file into a new {@link TicketStore}.
+     *
+     * @param filepath the path of the snapshot file
+     * @return the store with rows grouped by route and a route index, or {@code null} if an error occurs
+     * or if the file is not a snapshot
+     */
+    public static TicketStore read(String filepath) {
+        try (FileChannel channel = FileChannel.open(Path.of(filepath), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return null;
+            }
+            int size = header.getInt();
+            int symbolCount = header.getInt();
+            int routeCount = header.getInt();
+            header.getInt();
+            long dataOffset = header.getLong();
+
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, dataOffset - HEADER_SIZE);
+            index.order(ByteOrder.LITTLE_ENDIAN);
+            SymbolTable symbols = new SymbolTable();
+            for (int id = 0; id < symbolCount; id++) {
+                byte[] bytes = new byte[index.getInt()];
+                index.get(bytes);
+                symbols.intern(new String(bytes, StandardCharsets.UTF_8));
+            }
+            Map<Long, int[]> routeRanges = new HashMap<>();
+            for (int i = 0; i < routeCount; i++) {
+                long key = TicketStore.routeKey(index.getInt(), index.getInt());
+                int first = index.getInt();
+                routeRanges.put(key, new int[]{first, first + index.getInt()});
+            }
+
+            long offset = dataOffset;
+            int[] origins = new int[size];
+            offset = readInts(channel, offset, origins);
+            int[] originNames = new int[size];
+            offset = readInts(channel, offset, originNames);
+            int[] destinations = new int[size];
+            offset = readInts(channel, offset, destinations);
+            int[] destinationNames = new int[size];
+            offset = readInts(channel, offset, destinationNames);
+            int[] carriers = new int[size];
+            offset = readInts(channel, offset, carriers);
+            int[] stops = new int[size];
+            offset = readInts(channel, offset, stops);
+            long[] departures = new long[size];
+            offset = readLongs(channel, offset, departures);
+            long[] arrivals = new long[size];
+            offset = readLongs(channel, offset, arrivals);
+            double[] prices = new double[size];
+            readDoubles(channel, offset, prices);
+
+            TicketStore store = new TicketStore(symbols, size, origins, originNames, destinations, destinationNames,
+                    carriers, stops, departures, arrivals, prices);
+            store.setRouteRanges(routeRanges);
+            return store;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the file starts with the snapshot magic number.
+     *
+     * @param filepath the path of the file
+     * @return {@code true} if the file is a snapshot, {@code false} otherwise or if it cannot be read
+     */
+    public static boolean isSnapshot(String filepath) {
+        try (FileChannel channel = FileChannel.open(Path.of(filepath), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until the magic number is complete or the file ends.
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long readInts(FileChannel channel, long offset, int[] column) throws IOException {
+        int done = 0;
+        while (done < column.length) {
+            int count = (int) Math.min(column.length - done, MAX_MAPPING / Integer.BYTES);
+            map(channel, offset, (long) count * Integer.BYTES).asIntBuffer().get(column, done, count);
+            offset += (long) count * Integer.BYTES;
+            done += count;
+        }
+        return offset;
+    }
+
+    private static long readLongs(FileChannel channel, long offset, long[] column) throws IOException {
+        int done = 0;
+        while (done < column.length) {
+            int count = (int) Math.min(column.length - done, MAX_MAPPING / Long.BYTES);
+            map(channel, offset, (long) count * Long.BYTES).asLongBuffer().get(column, done, count);
+            offset += (long) count * Long.BYTES;
+            done += count;
+        }
+        return offset;
+    }
+
+    private static void readDoubles(FileChannel channel, long offset, double[] column) throws IOException {
+        int done = 0;
+        while (done < column.length) {
+            int count = (int) Math.min(column.length - done, MAX_MAPPING / Double.BYTES);
+            map(channel, offset, (long) count * Double.BYTES).asDoubleBuffer().get(column, done, count);
+            offset += (long) count * Double.BYTES;
+            done += count;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Buffered little-endian writer of the snapshot sections.
+     */
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+
+        ColumnWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ColumnWriter putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            return this;
+        }
+
+        ColumnWriter putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+            return this;
+        }
+
+        ColumnWriter put(byte[] bytes) throws IOException {
+            int done = 0;
+            while (done < bytes.length) {
+                ensure(1);
+                int count = Math.min(buffer.remaining(), bytes.length - done);
+                buffer.put(bytes, done, count);
+                done += count;
+            }
+            return this;
+        }
+
+        void putInts(int[] column, int[] order) throws IOException {
+            for (int row : order) {
+                putInt(column[row]);
+            }
+        }
+
+        void putLongs(long[] column, int[] order) throws IOException {
+            for (int row : order) {
+                putLong(column[row]);
+            }
+        }
+
+        void putDoubles(double[] column, int[] order) throws IOException {
+            for (int row : order) {
+                ensure(Double.BYTES);
+                buffer.putDouble(column[row]);
+            }
+        }
+
+        void padTo(long offset) throws IOException {
+            while (written + buffer.position() < offset) {
+                ensure(1);
+                buffer.put((byte) 0);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package task;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Columnar, primitive-specialized storage of ticket data.
+ * <p>
+ * Instead of one {@link TicketData} object (and its dates, times and strings) per ticket, the store keeps one
+ * primitive array per field: string fields are dictionary-encoded into int ids of a shared {@link SymbolTable},
+ * departure and arrival are stored as minutes since the epoch, and prices as a {@code double[]}. This cuts heap use
+ * several-fold and lets the {@link TicketDataAnalyzer} overloads for this class scan contiguous memory.
+ * </p>
+ * <p>
+ * The ticket format has minute resolution, so seconds of departure and arrival times are not stored.
+ * A store loaded from a {@link TicketSnapshot} has its rows grouped by route and carries a route index, which lets
+ * route queries scan only the rows of that route; appending a ticket drops the index.
+ * Instances are not thread-safe while tickets are being added; a fully populated store can be read concurrently.
+ * </p>
+ */
+public class TicketStore implements Consumer<TicketData> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final SymbolTable symbols;
+    private int[] origins;
+    private int[] originNames;
+    private int[] destinations;
+    private int[] destinationNames;
+    private int[] carriers;
+    private int[] stops;
+    private long[] departures;
+    private long[] arrivals;
+    private double[] prices;
+    private int size;
+    private Map<Long, int[]> routeRanges;
+
+    /**
+     * Creates an empty store with its own symbol table.
+     */
+    public TicketStore() {
+        this(new SymbolTable(), INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty store that encodes strings with the given symbol table.
+     *
+     * @param symbols the symbol table used to encode string fields
+     * @param capacity the initial number of tickets the store can hold without growing
+     */
+    public TicketStore(SymbolTable symbols, int capacity) {
+        int initialCapacity = Math.max(1, capacity);
+        this.symbols = symbols;
+        this.origins = new int[initialCapacity];
+        this.originNames = new int[initialCapacity];
+        this.destinations = new int[initialCapacity];
+        this.destinationNames = new int[initialCapacity];
+        this.carriers = new int[initialCapacity];
+        this.stops = new int[initialCapacity];
+        this.departures = new long[initialCapacity];
+        this.arrivals = new long[initialCapacity];
+        this.prices = new double[initialCapacity];
+    }
+
+    /**
+     * Creates a store over fully populated columns.
+     */
+    TicketStore(SymbolTable symbols, int size, int[] origins, int[] originNames, int[] destinations,
+                int[] destinationNames, int[] carriers, int[] stops, long[] departures, long[] arrivals, double[] prices) {
+        this.symbols = symbols;
+        this.size = size;
+        this.origins = origins;
+        this.originNames = originNames;
+        this.destinations = destinations;
+        this.destinationNames = destinationNames;
+        this.carriers = carriers;
+        this.stops = stops;
+        this.departures = departures;
+        this.arrivals = arrivals;
+        this.prices = prices;
+    }
+
+    /**
+     * Creates a store containing the specified tickets.
+     *
+     * @param tickets the tickets to store
+     * @return a new store with the tickets in iteration order
+     */
+    public static TicketStore of(Iterable<TicketData> tickets) {
+        TicketStore store = new TicketStore();
+        for (TicketData ticket : tickets) {
+            store.accept(ticket);
+        }
+        return store;
+    }
+
+    /**
+     * Appends the ticket to the store.
+     *
+     * @param ticket the ticket to append
+     */
+    @Override
+    public void accept(TicketData ticket) {
+        add(symbols.intern(ticket.origin()), symbols.intern(ticket.originName()),
+                symbols.intern(ticket.destination()), symbols.intern(ticket.destinationName()),
+                epochMinute(ticket.departureDate(), ticket.departureTime()),
+                epochMinute(ticket.arrivalDate(), ticket.arrivalTime()),
+                symbols.intern(ticket.carrier()), ticket.stops(), ticket.price());
+    }
+
+    /**
+     * Appends a ticket given by its already encoded fields.
+     */
+    void add(int origin, int originName, int destination, int destinationName,
+             long departure, long arrival, int carrier, int stopCount, double price) {
+        if (size == prices.length) {
+            grow();
+        }
+        routeRanges = null;
+        origins[size] = origin;
+        originNames[size] = originName;
+        destinations[size] = destination;
+        destinationNames[size] = destinationName;
+        departures[size] = departure;
+        arrivals[size] = arrival;
+        carriers[size] = carrier;
+        stops[size] = stopCount;
+        prices[size] = price;
+        size++;
+    }
+
+    /**
+     * Returns the number of tickets in the store.
+     *
+     * @return the number of tickets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the symbol table used to encode the string fields of the store.
+     *
+     * @return the symbol table
+     */
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /**
+     * Reconstructs the ticket at the specified row.
+     *
+     * @param row the row of the ticket
+     * @return a new {@link TicketData} object with the fields of the ticket
+     * @throws IndexOutOfBoundsException if the row is out of range
+     */
+    public TicketData get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return new TicketData(symbols.symbol(origins[row]), symbols.symbol(originNames[row]),
+                symbols.symbol(destinations[row]), symbols.symbol(destinationNames[row]),
+                toDate(departures[row]), toTime(departures[row]),
+                toDate(arrivals[row]), toTime(arrivals[row]),
+                symbols.symbol(carriers[row]), stops[row], prices[row]);
+    }
+
+    /**
+     * Returns the range of rows holding the tickets of a route, if the rows are grouped by route.
+     *
+     * @param originName the symbol id of the origin name
+     * @param destinationName the symbol id of the destination name
+     * @return an array with the first row (inclusive) and the last row (exclusive) of the route, which is empty if
+     * the route is not present, or {@code null} if the store has no route index
+     */
+    int[] routeRange(int originName, int destinationName) {
+        if (routeRanges == null) {
+            return null;
+        }
+        int[] range = routeRanges.get(routeKey(originName, destinationName));
+        return range == null ? new int[]{0, 0} : range;
+    }
+
+    /**
+     * Sets the route index of a store whose rows are grouped by route.
+     *
+     * @param routeRanges a map from {@link #routeKey(int, int)} to the row range of each route
+     */
+    void setRouteRanges(Map<Long, int[]> routeRanges) {
+        this.routeRanges = routeRanges;
+    }
+
+    /**
+     * Combines the symbol ids of a route's origin and destination names into a single key.
+     */
+    static long routeKey(int originName, int destinationName) {
+        return ((long) originName << 32) | (destinationName & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Converts a date and time to the number of minutes since 1970-01-01T00:00.
+     *
+     * @param date the date
+     * @param time the time, whose seconds are ignored
+     * @return the epoch minute
+     */
+    static long epochMinute(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    private static LocalDate toDate(long epochMinute) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochMinute, MINUTES_PER_DAY));
+    }
+
+    private static LocalTime toTime(long epochMinute) {
+        int minuteOfDay = Math.floorMod(epochMinute, MINUTES_PER_DAY);
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, prices.length * 2);
+        origins = Arrays.copyOf(origins, capacity);
+        originNames = Arrays.copyOf(originNames, capacity);
+        destinations = Arrays.copyOf(destinations, capacity);
+        destinationNames = Arrays.copyOf(destinationNames, capacity);
+        carriers = Arrays.copyOf(carriers, capacity);
+        stops = Arrays.copyOf(stops, capacity);
+        departures = Arrays.copyOf(departures, capacity);
+        arrivals = Arrays.copyOf(arrivals, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+    }
+
+    int[] origins() {
+        return origins;
+    }
+
+    int[] originNames() {
+        return originNames;
+    }
+
+    int[] destinations() {
+        return destinations;
+    }
+
+    int[] destinationNames() {
+        return destinationNames;
+    }
+
+    int[] carriers() {
+        return carriers;
+    }
+
+    int[] stops() {
+        return stops;
+    }
+
+    long[] departures() {
+        return departures;
+    }
+
+    long[] arrivals() {
+        return arrivals;
+    }
+
+    double[] prices() {
+        return prices;
+    }
+}
@@ -0,0 +1,91 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static task.TestTickets.ticket;
+
+class AirportZonesTest {
+    @Test
+    public void testBundledTable() {
+        AirportZones zones = AirportZones.bundled();
+
+        assertEquals(ZoneId.of("Asia/Vladivostok"), zones.zone("VVO"));
+        assertEquals(ZoneId.of("Asia/Jerusalem"), zones.zone("TLV"));
+        assertNull(zones.zone("XXX"));
+    }
+
+    @Test
+    public void testFlightNanosMatchesZonedDateTime() {
+        AirportZones zones = AirportZones.bundled();
+        String[] airports = {"VVO", "TLV", "UFA", "LHR", "JFK", "SYD", "AMM", "BEY", "KTM", "ANC"};
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            String origin = airports[random.nextInt(airports.length)];
+            String destination = airports[random.nextInt(airports.length)];
+            LocalDateTime departure = LocalDateTime.of(1995 + random.nextInt(40), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60));
+            LocalDateTime arrival = departure.plusMinutes(random.nextInt(2_000));
+            Duration expected = Duration.between(departure.atZone(zones.zone(origin)), arrival.atZone(zones.zone(destination)));
+            TicketData ticket = ticket().airports(origin, destination).times(departure, arrival).build();
+
+            assertEquals(expected.toNanos(), zones.flightNanos(ticket));
+        }
+    }
+
+    @Test
+    public void testTransitionDay() {
+        AirportZones zones = AirportZones.bundled();
+        LocalDate springForward = LocalDate.of(2024, 3, 31);
+
+        TicketData beforeChange = ticket().airports("FRA", "LHR")
+                .times(springForward.atTime(0, 30), springForward.atTime(3, 30)).build();
+        TicketData acrossChange = ticket().airports("FRA", "FRA")
+                .times(springForward.atTime(1, 30), springForward.atTime(3, 30)).build();
+
+        assertEquals(Duration.ofHours(3).toNanos(), zones.flightNanos(beforeChange));
+        assertEquals(Duration.ofHours(1).toNanos(), zones.flightNanos(acrossChange));
+        assertEquals(Duration.ofHours(3).toNanos(), zones.flightNanos(beforeChange));
+    }
+
+    @Test
+    public void testAnalyzerUsesUtc() {
+        LocalDateTime departure = LocalDateTime.of(2018, 5, 12, 16, 20);
+        List<TicketData> tickets = List.of(
+                ticket().flight(departure, 6 * 60).build(),
+                ticket().flight(departure, 5 * 60).build());
+
+        Map<String, Duration> durations = TicketDataAnalyzer.calculateMinFlightsTimes(tickets, "Владивосток", "Тель-Авив",
+                AirportZones.bundled());
+
+        assertEquals(Map.of("TK", Duration.ofHours(12)), durations);
+        assertThrows(IllegalArgumentException.class, () -> TicketDataAnalyzer.calculateMinFlightsTimes(
+                List.of(ticket().airports("VVO", "XXX").flight(departure, 0).build()), "Владивосток", "Тель-Авив",
+                AirportZones.bundled()));
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        AirportZones zones = AirportZones.load(new StringReader("""
+                # comment
+
+                AAA, Europe/Paris
+                AAA,Asia/Tokyo
+                """));
+
+        assertEquals(ZoneId.of("Asia/Tokyo"), zones.zone("AAA"));
+        assertThrows(IllegalArgumentException.class, () -> AirportZones.load(new StringReader("AAA")));
+    }
+}
@@ -0,0 +1,67 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DateTimeDeserializerTest {
+    @Test
+    void testParseDate_matchesFormatter() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy");
+        for (int year = 0; year < 100; year += 3) {
+            for (int month = 1; month <= 12; month++) {
+                for (int day = 1; day <= 31; day++) {
+                    String text = String.format("%02d.%02d.%02d", day, month, year);
+                    assertEquals(LocalDate.parse(text, formatter), LocalDateDeserializer.parse(text), text);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParseDate_cachesInstances() {
+        assertSame(LocalDateDeserializer.parse("12.05.18"), LocalDateDeserializer.parse(new String("12.05.18")));
+    }
+
+    @Test
+    void testParseDate_invalid() {
+        assertThrows(DateTimeParseException.class, () -> LocalDateDeserializer.parse("32.05.18"));
+        assertThrows(DateTimeParseException.class, () -> LocalDateDeserializer.parse("12.13.18"));
+        assertThrows(DateTimeParseException.class, () -> LocalDateDeserializer.parse("1.05.18"));
+        assertThrows(DateTimeParseException.class, () -> LocalDateDeserializer.parse("ab.cd.ef"));
+    }
+
+    @Test
+    void testParseTime_matchesFormatter() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H[H]:mm");
+        for (int hour = 0; hour < 24; hour++) {
+            for (int minute = 0; minute < 60; minute++) {
+                String padded = String.format("%02d:%02d", hour, minute);
+                String unpadded = String.format("%d:%02d", hour, minute);
+                assertEquals(LocalTime.parse(padded, formatter), LocalTimeDeserializer.parse(padded), padded);
+                assertEquals(LocalTime.parse(unpadded, formatter), LocalTimeDeserializer.parse(unpadded), unpadded);
+            }
+        }
+        assertEquals(LocalTime.parse("24:00", formatter), LocalTimeDeserializer.parse("24:00"));
+    }
+
+    @Test
+    void testParseTime_cachesInstances() {
+        assertSame(LocalTimeDeserializer.parse("9:05"), LocalTimeDeserializer.parse("09:05"));
+    }
+
+    @Test
+    void testParseTime_invalid() {
+        assertThrows(DateTimeParseException.class, () -> LocalTimeDeserializer.parse("25:00"));
+        assertThrows(DateTimeParseException.class, () -> LocalTimeDeserializer.parse("12:60"));
+        assertThrows(DateTimeParseException.class, () -> LocalTimeDeserializer.parse("12:5"));
+        assertThrows(DateTimeParseException.class, () -> LocalTimeDeserializer.parse("1a:05"));
+    }
+}
@@ -0,0 +1,94 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static task.TestTickets.ticket;
+
+class ExternalMedianTest {
+    @TempDir
+    Path tempDir;
+
+    private long runFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testMatchesInMemoryMedian() throws IOException {
+        Random random = new Random(17);
+        for (int length : new int[]{1, 2, 127, 128, 129, 1_000, 5_001, 20_000}) {
+            double[] values = new double[length];
+            try (ExternalMedian median = new ExternalMedian(ExternalMedian.MIN_MEMORY_BYTES, tempDir)) {
+                for (int i = 0; i < length; i++) {
+                    values[i] = switch (random.nextInt(4)) {
+                        case 0 -> random.nextInt(50) * 0.1;
+                        case 1 -> random.nextBoolean() ? 0.0 : -0.0;
+                        default -> random.nextGaussian() * 1e4;
+                    };
+                    median.accept(values[i]);
+                }
+
+                assertEquals(length, median.getCount());
+                assertEquals(length / 128 - (length % 128 == 0 ? 1 : 0), median.getRunCount());
+                assertEquals(Quantiles.median(values.clone(), length), median.median());
+                median.accept(1.0);
+                double[] extended = Arrays.copyOf(values, length + 1);
+                extended[length] = 1.0;
+                assertEquals(Quantiles.median(extended, length + 1), median.median());
+            }
+            assertEquals(0, runFiles());
+        }
+    }
+
+    @Test
+    public void testEmptyAndInvalid() throws IOException {
+        try (ExternalMedian median = new ExternalMedian(ExternalMedian.MIN_MEMORY_BYTES, tempDir)) {
+            assertTrue(Double.isNaN(median.median()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ExternalMedian(8));
+    }
+
+    @Test
+    public void testLargeBudgetGrowsOnDemand() throws IOException {
+        try (ExternalMedian median = new ExternalMedian(Long.MAX_VALUE, tempDir)) {
+            for (double price : new double[]{300, 100, 200}) {
+                median.accept(price);
+            }
+
+            assertEquals(200, median.median());
+            assertEquals(0, median.getRunCount());
+        }
+        assertEquals(0, runFiles());
+    }
+
+    @Test
+    public void testAnalyzerMatchesInMemoryMethod() {
+        Random random = new Random(19);
+        List<TicketData> tickets = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            tickets.add(ticket().route(random.nextInt(3) == 0 ? "X" : "A", "B").price(1_000 + random.nextInt(100_000) / 3.0).build());
+        }
+
+        assertEquals(TicketDataAnalyzer.calculateMedianPrice(tickets, "A", "B"),
+                TicketDataAnalyzer.calculateMedianPrice(tickets, "A", "B", ExternalMedian.MIN_MEMORY_BYTES));
+        assertTrue(Double.isNaN(TicketDataAnalyzer.calculateMedianPrice(tickets, "Z", "B", 1 << 20)));
+        assertEquals(RouteReport.of(TicketDataAnalyzer.calculateRouteStatistics(tickets, "A", "B")),
+                TicketDataAnalyzer.calculateRouteReport(tickets, "A", "B", ExternalMedian.MIN_MEMORY_BYTES));
+        assertEquals(RouteReport.of(new RouteStatistics("Z", "B")),
+                TicketDataAnalyzer.calculateRouteReport(tickets, "Z", "B", 1 << 20));
+    }
+}
@@ -0,0 +1,163 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static task.TestTickets.DAY;
+import static task.TestTickets.ticket;
+
+class ItineraryPlannerTest {
+    private static void search(List<TicketData> tickets, String destination, Duration layover, List<TicketData> path,
+                               List<List<TicketData>> found) {
+        TicketData last = path.get(path.size() - 1);
+        if (last.destinationName().equals(destination)) {
+            found.add(new ArrayList<>(path));
+            return;
+        }
+        LocalDateTime ready = LocalDateTime.of(last.arrivalDate(), last.arrivalTime()).plus(layover);
+        for (TicketData next : tickets) {
+            LocalDateTime departure = LocalDateTime.of(next.departureDate(), next.departureTime());
+            if (next.originName().equals(last.destinationName()) && !departure.isBefore(ready)
+                    && !next.destinationName().equals(path.get(0).originName())) {
+                path.add(next);
+                search(tickets, destination, layover, path, found);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    @Test
+    public void testConnectionsWithLayover() {
+        List<TicketData> tickets = List.of(
+                ticket().route("A", "B").minutes(60, 120).build(),
+                ticket().route("B", "C").minutes(150, 200).build(),
+                ticket().route("B", "C").minutes(180, 240).price(50).build(),
+                ticket().route("A", "C").minutes(30, 400).price(120).build(),
+                ticket().route("A", "C").minutes(0, 300).price(500).build());
+        ItineraryPlanner planner = ItineraryPlanner.build(tickets);
+
+        Itinerary fastest = planner.findEarliestArrival("A", "C", null, Duration.ofMinutes(30));
+        assertNotNull(fastest);
+        assertEquals(List.of(tickets.get(0), tickets.get(1)), fastest.legs());
+        assertEquals(Duration.ofMinutes(140), fastest.duration());
+
+        Itinerary withLongLayover = planner.findEarliestArrival("A", "C", null, Duration.ofMinutes(45));
+        assertEquals(List.of(tickets.get(0), tickets.get(2)), withLongLayover.legs());
+
+        Itinerary cheapest = planner.findCheapest("A", "C", null, Duration.ofMinutes(30));
+        assertEquals(List.of(tickets.get(3)), cheapest.legs());
+        assertEquals(120.0, cheapest.price());
+
+        Itinerary cheapestLater = planner.findCheapest("A", "C", DAY.plusMinutes(40), Duration.ofMinutes(30));
+        assertEquals(List.of(tickets.get(0), tickets.get(2)), cheapestLater.legs());
+        assertEquals(150.0, cheapestLater.price());
+
+        assertNull(planner.findEarliestArrival("C", "A", null, Duration.ZERO));
+        assertNull(planner.findCheapest("A", "Z", null, Duration.ZERO));
+        assertNull(planner.findEarliestArrival("A", "C", DAY.plusMinutes(61), Duration.ZERO));
+    }
+
+    @Test
+    public void testLegArrivingBeforeDeparture() {
+        List<TicketData> tickets = List.of(
+                ticket().route("S", "X").minutes(600, 660).build(),
+                ticket().route("X", "Y").minutes(720, 780).build(),
+                ticket().route("Y", "X").minutes(780, 540).build(),
+                ticket().route("X", "T").minutes(840, 900).build());
+        ItineraryPlanner planner = ItineraryPlanner.build(tickets);
+
+        Itinerary fastest = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> planner.findEarliestArrival("S", "T", null, Duration.ZERO));
+
+        assertNotNull(fastest);
+        assertEquals(tickets, fastest.legs());
+        assertEquals(List.of(tickets.get(0), tickets.get(3)),
+                planner.findCheapest("S", "T", null, Duration.ZERO).legs());
+    }
+
+    @Test
+    public void testLegArrivingBeforeEarlierArrival() {
+        List<TicketData> tickets = List.of(
+                ticket().route("S", "T").minutes(600, 900).build(),
+                ticket().route("S", "T").minutes(960, 840).build());
+        ItineraryPlanner planner = ItineraryPlanner.build(tickets);
+
+        assertEquals(List.of(tickets.get(1)), planner.findEarliestArrival("S", "T", null, Duration.ZERO).legs());
+    }
+
+    @Test
+    public void testConnectionsAcrossTimeZones() throws IOException {
+        AirportZones zones = AirportZones.load(new StringReader("VVO,Asia/Vladivostok\nLED,Europe/Moscow\nTLV,Asia/Jerusalem"));
+        // 02:00Z to 07:00Z, then 08:00Z to 12:00Z; the second leg departs before the first one in local time.
+        TicketData west = ticket().airports("VVO", "LED").route("Владивосток", "Санкт-Петербург")
+                .carrier("S7").hours(12, 10).price(300).build();
+        TicketData onward = ticket().airports("LED", "TLV").route("Санкт-Петербург", "Тель-Авив")
+                .carrier("SU").hours(11, 15).price(200).build();
+        List<TicketData> tickets = List.of(west, onward);
+
+        ItineraryPlanner planner = ItineraryPlanner.build(tickets, zones);
+
+        assertNull(ItineraryPlanner.build(tickets).findEarliestArrival("Владивосток", "Тель-Авив", null, Duration.ZERO));
+        assertEquals(tickets, planner.findEarliestArrival("Владивосток", "Тель-Авив", null, Duration.ofMinutes(60)).legs());
+        assertEquals(tickets, planner.findCheapest("Владивосток", "Тель-Авив", null, Duration.ofMinutes(60)).legs());
+        assertNull(planner.findEarliestArrival("Владивосток", "Тель-Авив", null, Duration.ofMinutes(61)));
+        assertNull(planner.findEarliestArrival("Владивосток", "Тель-Авив", DAY.plusHours(3), Duration.ZERO));
+    }
+
+    @Test
+    public void testMatchesExhaustiveSearch() {
+        Random random = new Random(5);
+        String[] cities = {"A", "B", "C", "D", "E"};
+        for (int round = 0; round < 20; round++) {
+            List<TicketData> tickets = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                int from = random.nextInt(cities.length);
+                int to = (from + 1 + random.nextInt(cities.length - 1)) % cities.length;
+                int departure = random.nextInt(48) * 30;
+                tickets.add(ticket().route(cities[from], cities[to])
+                        .minutes(departure, departure + 30 + random.nextInt(300))
+                        .price(10 + random.nextInt(40) * 5).build());
+            }
+            ItineraryPlanner planner = ItineraryPlanner.build(tickets);
+            Duration layover = Duration.ofMinutes(random.nextInt(4) * 20);
+
+            List<List<TicketData>> found = new ArrayList<>();
+            for (TicketData first : tickets) {
+                if (first.originName().equals("A")) {
+                    List<TicketData> path = new ArrayList<>(List.of(first));
+                    if (!first.destinationName().equals("A")) {
+                        search(tickets, "E", layover, path, found);
+                    }
+                }
+            }
+
+            Itinerary fastest = planner.findEarliestArrival("A", "E", null, layover);
+            Itinerary cheapest = planner.findCheapest("A", "E", null, layover);
+            if (found.isEmpty()) {
+                assertNull(fastest);
+                assertNull(cheapest);
+                continue;
+            }
+            LocalDateTime expectedArrival = found.stream().map(path -> new Itinerary(path).arrival())
+                    .min(LocalDateTime::compareTo).orElseThrow();
+            double expectedPrice = found.stream().mapToDouble(path -> new Itinerary(path).price()).min().orElseThrow();
+            assertNotNull(fastest);
+            assertNotNull(cheapest);
+            assertEquals(expectedArrival, fastest.arrival());
+            assertEquals(expectedPrice, cheapest.price());
+            assertEquals("A", cheapest.legs().get(0).originName());
+            assertEquals("E", cheapest.legs().get(cheapest.legs().size() - 1).destinationName());
+        }
+    }
+}
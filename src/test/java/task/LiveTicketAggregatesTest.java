@@ -0,0 +1,123 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static task.TestTickets.ticket;
+
+class LiveTicketAggregatesTest {
+    @TempDir
+    Path tempDir;
+
+    private static String deltaLine(String op, String carrier, String arrivalTime, int price) {
+        return "{\"op\": \"" + op + "\", \"ticket\": {\"origin\": \"VVO\", \"origin_name\": \"Владивосток\","
+                + " \"destination\": \"TLV\", \"destination_name\": \"Тель-Авив\", \"departure_date\": \"12.05.18\","
+                + " \"departure_time\": \"6:00\", \"arrival_date\": \"12.05.18\", \"arrival_time\": \"" + arrivalTime
+                + "\", \"carrier\": \"" + carrier + "\", \"stops\": 0, \"price\": " + price + "}}\n";
+    }
+
+    private static void append(Path path, String content) throws IOException {
+        Files.writeString(path, content, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    public void testAddOnlyMatchesAnalyzer() {
+        Random random = new Random(13);
+        List<TicketData> tickets = random.ints(1_001, 0, 4)
+                .mapToObj(i -> ticket().originName(i == 0 ? "Ларнака" : "Владивосток").carrier("C" + (i * 7 % 5))
+                        .hours(random.nextInt(12), 12 + random.nextInt(12))
+                        .price(random.nextInt(2_000_000) / 100.0).build())
+                .toList();
+
+        RouteReport report = LiveTicketAggregates.of(tickets).report("Владивосток", "Тель-Авив");
+
+        assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(tickets, "Владивосток", "Тель-Авив"), report.minFlightTimes());
+        assertEquals(TicketDataAnalyzer.calculateAveragePrice(tickets, "Владивосток", "Тель-Авив"), report.averagePrice());
+        assertEquals(TicketDataAnalyzer.calculateMedianPrice(tickets, "Владивосток", "Тель-Авив"), report.medianPrice());
+    }
+
+    @Test
+    public void testRandomAddAndRemoveMatchesRecomputation() {
+        Random random = new Random(21);
+        LiveRouteStatistics statistics = new LiveRouteStatistics("Владивосток", "Тель-Авив");
+        List<TicketData> present = new ArrayList<>();
+        for (int step = 0; step < 3_000; step++) {
+            if (!present.isEmpty() && random.nextInt(3) == 0) {
+                assertTrue(statistics.remove(present.remove(random.nextInt(present.size()))));
+            } else {
+                TicketData ticket = ticket().carrier("C" + random.nextInt(4))
+                        .hours(random.nextInt(12), 12 + random.nextInt(12)).price(random.nextInt(200) * 50).build();
+                present.add(ticket);
+                statistics.add(ticket);
+            }
+            if (step % 97 == 0) {
+                RouteStatistics expected = TicketDataAnalyzer.calculateRouteStatistics(present, "Владивосток", "Тель-Авив");
+                assertEquals(expected.getCount(), statistics.getCount());
+                assertEquals(expected.getMinFlightsTimes(), statistics.getMinFlightsTimes());
+                assertEquals(expected.getMedianPrice(), statistics.getMedianPrice());
+                assertEquals(expected.getAveragePrice(), statistics.getAveragePrice(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        LiveTicketAggregates aggregates = new LiveTicketAggregates();
+        TicketData slow = ticket().carrier("S7").hours(6, 16).price(300).build();
+        TicketData fast = ticket().carrier("S7").hours(6, 10).build();
+        aggregates.add(slow);
+        aggregates.add(fast);
+
+        assertFalse(aggregates.remove(ticket().carrier("S7").hours(6, 11).build()));
+        assertFalse(aggregates.remove(ticket().originName("Ларнака").carrier("S7").hours(6, 10).build()));
+        // Duration and price both exist on the route, but never on the same ticket.
+        assertFalse(aggregates.remove(ticket().carrier("S7").hours(6, 10).price(300).build()));
+        assertEquals(2, aggregates.report("Владивосток", "Тель-Авив").count());
+        assertTrue(aggregates.remove(fast));
+        RouteReport report = aggregates.report("Владивосток", "Тель-Авив");
+        assertEquals(Duration.ofHours(10), report.minFlightTimes().get("S7"));
+        assertEquals(300.0, report.averagePrice());
+
+        assertTrue(aggregates.remove(slow));
+        report = aggregates.report("Владивосток", "Тель-Авив");
+        assertEquals(0, report.count());
+        assertTrue(report.minFlightTimes().isEmpty());
+        assertTrue(Double.isNaN(report.averageAndMedianPriceDifference()));
+    }
+
+    @Test
+    public void testDeltaLogPollsAppendedLines() throws IOException {
+        Path path = tempDir.resolve("deltas.ndjson");
+        LiveTicketAggregates aggregates = new LiveTicketAggregates();
+        TicketDeltaLog log = new TicketDeltaLog(path, aggregates::apply);
+
+        assertEquals(0, log.poll());
+        append(path, "\uFEFF" + deltaLine("add", "S7", "16:00", 300) + deltaLine("add", "TK", "12:00", 200));
+        String partial = deltaLine("add", "S7", "10:00", 100);
+        append(path, partial.substring(0, 40));
+        assertEquals(2, log.poll());
+        assertEquals(2, aggregates.report("Владивосток", "Тель-Авив").count());
+
+        append(path, partial.substring(40) + "{not json}\n\n" + deltaLine("remove", "TK", "12:00", 200));
+        assertEquals(2, log.poll());
+        RouteReport report = aggregates.report("Владивосток", "Тель-Авив");
+        assertEquals(2, report.count());
+        assertEquals(Duration.ofHours(4), report.minFlightTimes().get("S7"));
+        assertFalse(report.minFlightTimes().containsKey("TK"));
+        assertEquals(Files.size(path), log.getOffset());
+        assertEquals(0, log.poll());
+    }
+}
@@ -0,0 +1,146 @@
+package task;
+
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedTicketReaderTest {
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameTickets(List<TicketData> expected, TicketStore store) {
+        assertNotNull(expected);
+        assertNotNull(store);
+        assertEquals(expected.size(), store.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), store.get(i));
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path;
+    }
+
+    @Test
+    void testReadTicketStore_matchesGsonWithBom() {
+        assertSameTickets(TicketJsonReader.readTickets("tickets.json"), MappedTicketReader.readTicketStore("tickets.json"));
+    }
+
+    @Test
+    void testReadTicketStore_escapesUnknownFieldsAndNumbers() throws IOException {
+        Path path = write("tickets_varied.json", """
+                {"meta": {"tickets": [1, "]"], "note": "a \\"quoted\\" value"},
+                 "tickets": [
+                  {"price": 12400.25, "origin": "VVO", "origin_name": "\\u0412\\u043b\\u0430\\u0434\\u0438\\u0432\\u043e\\u0441\\u0442\\u043e\\u043a",
+                   "destination": "TLV", "destination_name": "Тель-Авив", "extra": [{"a": null}, true],
+                   "departure_date": "31.12.18", "departure_time": "9:05",
+                   "arrival_date": "01.01.19", "arrival_time": "00:10", "carrier": "TK", "stops": 2},
+                  {"origin": "VVO", "origin_name": "Владивосток", "destination": "TLV", "destination_name": "Тель-Авив",
+                   "departure_date": "29.02.19", "departure_time": "23:59", "arrival_date": "01.03.19",
+                   "arrival_time": "1:00", "carrier": "S7", "stops": 0, "price": 1.5e4}
+                 ]}""");
+
+        TicketStore store = MappedTicketReader.readTicketStore(path.toString());
+
+        assertSameTickets(TicketJsonReader.readTickets(path.toString()), store);
+        assertEquals(store.symbols().id("Владивосток"), store.originNames()[1]);
+        assertEquals(store.originNames()[0], store.originNames()[1]);
+    }
+
+    @Test
+    void testReadTicketStore_smallWindows() throws IOException {
+        Random random = new Random(9);
+        StringBuilder sb = new StringBuilder("{\"tickets\": [");
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) {
+                sb.append(",\n");
+            }
+            sb.append("{\"origin\": \"VVO\", \"origin_name\": \"Город").append(random.nextInt(5))
+                    .append("\", \"destination\": \"TLV\", \"destination_name\": \"Тель-Авив\", \"departure_date\": \"")
+                    .append(String.format("%02d.%02d.%02d", 1 + random.nextInt(28), 1 + random.nextInt(12), random.nextInt(100)))
+                    .append("\", \"departure_time\": \"").append(random.nextInt(24)).append(':')
+                    .append(String.format("%02d", random.nextInt(60)))
+                    .append("\", \"arrival_date\": \"01.01.20\", \"arrival_time\": \"12:00\", \"carrier\": \"C")
+                    .append(random.nextInt(7)).append("\", \"stops\": ").append(random.nextInt(3))
+                    .append(", \"price\": ").append(random.nextInt(100000) / 100.0).append('}');
+        }
+        sb.append("]}");
+        Path path = write("tickets_many.json", sb.toString());
+
+        assertSameTickets(TicketJsonReader.readTickets(path.toString()), MappedTicketReader.readTicketStore(path.toString(), 2048));
+    }
+
+    @Test
+    void testReadTicketStore_nullAndQuotedNumbersLikeGson() throws IOException {
+        String ticket = """
+                {"origin": "VVO", "origin_name": "A", "destination": "TLV", "destination_name": "B",
+                 "departure_date": "12.05.18", "departure_time": "16:20", "arrival_date": "12.05.18",
+                 "arrival_time": "22:10", "carrier": "TK", "stops": %s, "price": %s}""";
+        Path quoted = write("tickets_quoted.json", "{\"tickets\": [" + ticket.formatted("\"2\"", "\"123.5\"") + "]}");
+        Path nullStops = write("tickets_null_stops.json", "{\"tickets\": [" + ticket.formatted("null", "1") + "]}");
+        Path nullPrice = write("tickets_null_price.json", "{\"tickets\": [" + ticket.formatted("1", "null") + "]}");
+
+        TicketStore store = MappedTicketReader.readTicketStore(quoted.toString());
+
+        assertSameTickets(TicketJsonReader.readTickets(quoted.toString()), store);
+        assertEquals(2, store.get(0).stops());
+        assertEquals(123.5, store.get(0).price());
+        for (Path path : List.of(nullStops, nullPrice)) {
+            assertThrows(JsonParseException.class, () -> TicketJsonReader.readTickets(path.toString()));
+            assertThrows(JsonParseException.class, () -> MappedTicketReader.readTicketStore(path.toString()));
+        }
+    }
+
+    @Test
+    void testReadTicketStore_ticketLargerThanWindow() throws IOException {
+        String note = "x".repeat(10_000);
+        StringBuilder sb = new StringBuilder("{\"tickets\": [");
+        for (int i = 0; i < 3; i++) {
+            sb.append(i == 0 ? "" : ",").append("""
+                    {"origin": "VVO", "origin_name": "A", "destination": "TLV", "destination_name": "B", "note": "%s",
+                     "departure_date": "12.05.18", "departure_time": "16:20", "arrival_date": "12.05.18",
+                     "arrival_time": "22:10", "carrier": "C%d", "stops": 1, "price": %d}""".formatted(note, i, 100 + i));
+        }
+        sb.append("]}");
+        Path path = write("tickets_large.json", sb.toString());
+
+        assertSameTickets(TicketJsonReader.readTickets(path.toString()), MappedTicketReader.readTicketStore(path.toString(), 2048));
+    }
+
+    @Test
+    void testReadTicketStore_noTickets() throws IOException {
+        assertNull(MappedTicketReader.readTicketStore(write("empty.json", "{}").toString()));
+        assertNull(MappedTicketReader.readTicketStore(write("blank.json", "").toString()));
+        assertNull(MappedTicketReader.readTicketStore(write("invalid.json", "{ \"invalid\": \"data\" }").toString()));
+        assertNull(MappedTicketReader.readTicketStore("non_existent_file.json"));
+        assertEquals(0, MappedTicketReader.readTicketStore(write("no_tickets.json", "{\"tickets\": []}").toString()).size());
+    }
+
+    @Test
+    void testReadTicketStore_malformed() throws IOException {
+        Path truncated = write("truncated.json", "{\"tickets\": [{\"origin\": \"VVO\"");
+        Path badDate = write("bad_date.json", """
+                {"tickets": [{"origin": "VVO", "origin_name": "A", "destination": "TLV", "destination_name": "B",
+                  "departure_date": "12.13.18", "departure_time": "16:20", "arrival_date": "12.05.18",
+                  "arrival_time": "22:10", "carrier": "TK", "stops": 3, "price": 12400}]}""");
+        Path missing = write("missing.json", "{\"tickets\": [{\"origin\": \"VVO\"}]}");
+
+        assertThrows(JsonParseException.class, () -> MappedTicketReader.readTicketStore(truncated.toString()));
+        assertThrows(JsonParseException.class, () -> MappedTicketReader.readTicketStore(badDate.toString()));
+        assertThrows(JsonParseException.class, () -> MappedTicketReader.readTicketStore(missing.toString()));
+    }
+}
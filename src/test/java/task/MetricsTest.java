@@ -0,0 +1,132 @@
+package task;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static task.TestTickets.ticket;
+
+class MetricsTest {
+    private static final String NDJSON_TICKET = "{\"origin\": \"VVO\", \"origin_name\": \"A\", \"destination\": \"TLV\","
+            + " \"destination_name\": \"B\", \"departure_date\": \"12.05.18\", \"departure_time\": \"16:20\","
+            + " \"arrival_date\": \"12.05.18\", \"arrival_time\": \"22:10\", \"carrier\": \"TK\", \"stops\": 3,"
+            + " \"price\": 12400}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void disableMetrics() {
+        Metrics.setSink(null);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        long previousHighest = -1;
+        for (int index = 0; index <= LatencyHistogram.bucketIndex(Long.MAX_VALUE); index++) {
+            long lowest = LatencyHistogram.lowestValue(index);
+            long highest = LatencyHistogram.highestValue(index);
+            assertEquals(previousHighest + 1, lowest);
+            assertEquals(index, LatencyHistogram.bucketIndex(lowest));
+            assertEquals(index, LatencyHistogram.bucketIndex(highest));
+            assertTrue(highest - lowest <= lowest / 64);
+            previousHighest = highest;
+        }
+        assertEquals(Long.MAX_VALUE, previousHighest);
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(7);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.getValueAtPercentile(percentile);
+            assertTrue(estimate >= exact && estimate <= exact + exact / 64, percentile + ": " + estimate + " " + exact);
+        }
+    }
+
+    @Test
+    public void testRegistryRecordsReaderAndAnalyzer() throws IOException {
+        Path file = tempDir.resolve("tickets.ndjson");
+        Files.writeString(file, NDJSON_TICKET.repeat(3), StandardCharsets.UTF_8);
+        MetricsRegistry registry = new MetricsRegistry();
+        Metrics.setSink(registry);
+
+        List<TicketData> tickets = TicketJsonReader.readTickets(file.toString());
+        TicketDataAnalyzer.calculateRouteStatistics(tickets, "A", "B");
+        TicketDataAnalyzer.calculateRouteStatistics(tickets, "A", "B");
+        assertNull(TicketJsonReader.readTickets(tempDir.resolve("missing.json").toString()));
+
+        MetricsRegistry.OperationMetrics read = registry.operation(TicketJsonReader.READ_OPERATION);
+        assertEquals(1, read.getLatency().getCount());
+        assertEquals(3, read.getTickets());
+        assertEquals(Files.size(file), read.getBytes());
+        assertEquals(1, read.getErrors());
+        MetricsRegistry.OperationMetrics analysis = registry.operation(TicketDataAnalyzer.ROUTE_STATISTICS_OPERATION);
+        assertEquals(2, analysis.getLatency().getCount());
+        assertEquals(6, analysis.getTickets());
+        assertTrue(registry.report().contains(TicketDataAnalyzer.ROUTE_STATISTICS_OPERATION + ": calls=2"));
+
+        TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, "A", "B");
+        TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(TicketStore.of(tickets), "A", "B");
+        assertEquals(2, registry.operation(TicketDataAnalyzer.PRICE_DIFFERENCE_OPERATION).getLatency().getCount());
+        assertEquals(2, analysis.getLatency().getCount());
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Metrics.setSink(registry);
+        Metrics.setSink(null);
+
+        TicketDataAnalyzer.calculateAveragePrice(List.of(ticket().route("A", "B").build()), "A", "B");
+
+        assertTrue(registry.getOperations().isEmpty());
+    }
+
+    @Test
+    public void testJfrEvents() throws IOException {
+        Path dump = tempDir.resolve("metrics.jfr");
+        Metrics.setSink(new JfrMetricsSink());
+        try (Recording recording = new Recording()) {
+            recording.enable(JfrMetricsSink.OPERATION_EVENT);
+            recording.start();
+            TicketDataAnalyzer.calculateMedianPrice(List.of(ticket().route("A", "B").build(),
+                    ticket().route("A", "B").carrier("SU").price(200).build()), "A", "B");
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals(JfrMetricsSink.OPERATION_EVENT))
+                .toList();
+        assertEquals(1, events.size());
+        assertEquals(TicketDataAnalyzer.MEDIAN_PRICE_OPERATION, events.get(0).getString("operation"));
+        assertEquals(2, events.get(0).getLong("tickets"));
+    }
+}
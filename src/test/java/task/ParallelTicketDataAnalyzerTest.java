@@ -0,0 +1,81 @@
+package task;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelTicketDataAnalyzerTest {
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final ParallelTicketDataAnalyzer analyzer = new ParallelTicketDataAnalyzer(pool, 1_000);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+        Metrics.setSink(null);
+    }
+
+    private static List<TicketData> randomTickets(int count) {
+        Random random = new Random(17);
+        List<TicketData> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tickets.add(new TicketData("VVO", random.nextInt(4) == 0 ? "Ларнака" : "Владивосток", "TLV", "Тель-Авив",
+                    LocalDate.of(2024, 7, 1), LocalTime.of(random.nextInt(12), random.nextInt(60)),
+                    LocalDate.of(2024, 7, 1), LocalTime.of(12 + random.nextInt(12), random.nextInt(60)),
+                    "C" + random.nextInt(6), 0, random.nextDouble() * 20000));
+        }
+        return tickets;
+    }
+
+    @Test
+    public void testIdenticalToSequential() {
+        List<TicketData> tickets = randomTickets(50_000);
+
+        assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(tickets, "Владивосток", "Тель-Авив"),
+                analyzer.calculateMinFlightsTimes(tickets, "Владивосток", "Тель-Авив"));
+        assertEquals(TicketDataAnalyzer.calculateAveragePrice(tickets, "Владивосток", "Тель-Авив"),
+                analyzer.calculateAveragePrice(tickets, "Владивосток", "Тель-Авив"));
+        assertEquals(TicketDataAnalyzer.calculateMedianPrice(tickets, "Владивосток", "Тель-Авив"),
+                analyzer.calculateMedianPrice(tickets, "Владивосток", "Тель-Авив"));
+        assertEquals(TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, "Владивосток", "Тель-Авив"),
+                analyzer.calculateAverageAndMedianPriceDifference(tickets, "Владивосток", "Тель-Авив"));
+    }
+
+    @Test
+    public void testNonRandomAccessList() {
+        List<TicketData> tickets = new LinkedList<>(randomTickets(5_000));
+
+        assertEquals(TicketDataAnalyzer.calculateAveragePrice(tickets, "Ларнака", "Тель-Авив"),
+                analyzer.calculateAveragePrice(tickets, "Ларнака", "Тель-Авив"));
+    }
+
+    @Test
+    public void testNoTickets() {
+        assertTrue(analyzer.calculateMinFlightsTimes(List.of(), "Владивосток", "Тель-Авив").isEmpty());
+        assertEquals(Double.NaN, analyzer.calculateAverageAndMedianPriceDifference(randomTickets(5_000), "Wrong1", "Wrong2"));
+    }
+
+    @Test
+    public void testOneMetricsSamplePerQuery() {
+        List<TicketData> tickets = randomTickets(50_000);
+        MetricsRegistry registry = new MetricsRegistry();
+        Metrics.setSink(registry);
+
+        analyzer.calculateRouteStatistics(tickets, "Владивосток", "Тель-Авив");
+        analyzer.calculateAveragePrice(tickets.subList(0, 500), "Владивосток", "Тель-Авив");
+
+        MetricsRegistry.OperationMetrics parallel = registry.operation(ParallelTicketDataAnalyzer.ROUTE_STATISTICS_OPERATION);
+        assertEquals(2, parallel.getLatency().getCount());
+        assertEquals(50_500, parallel.getTickets());
+        assertEquals(0, registry.operation(TicketDataAnalyzer.ROUTE_STATISTICS_OPERATION).getLatency().getCount());
+    }
+}
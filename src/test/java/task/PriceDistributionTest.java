@@ -0,0 +1,108 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static task.TestTickets.ticket;
+
+class PriceDistributionTest {
+    @Test
+    public void testSinglePassStatistics() {
+        PriceDistribution distribution = new PriceDistribution(100);
+        for (double price : new double[]{250, 120, 90, 310, 130}) {
+            distribution.accept(price);
+        }
+
+        assertEquals(5, distribution.getCount());
+        assertEquals(90, distribution.getMin());
+        assertEquals(310, distribution.getMax());
+        assertEquals(180, distribution.getMean(), 1e-9);
+        assertEquals(Math.sqrt(7200), distribution.getStandardDeviation(), 1e-9);
+        assertEquals(130, distribution.getPercentile(50));
+        assertEquals(Map.of(0.0, 1L, 100.0, 2L, 200.0, 1L, 300.0, 1L), distribution.getHistogram());
+        assertTrue(Double.isNaN(new PriceDistribution(100).getStandardDeviation()));
+        assertThrows(IllegalArgumentException.class, () -> new PriceDistribution(0));
+    }
+
+    @Test
+    public void testWidePriceRangeWithNarrowBuckets() {
+        PriceDistribution distribution = new PriceDistribution(0.01);
+        for (double price : new double[]{0.5, 100_000, 1e12, -3, Double.POSITIVE_INFINITY, 100_000}) {
+            distribution.accept(price);
+        }
+        PriceDistribution merged = new PriceDistribution(0.01).merge(distribution).merge(distribution);
+
+        assertEquals(6, distribution.getCount());
+        assertEquals(Double.POSITIVE_INFINITY, distribution.getMax());
+        assertEquals(4, distribution.getHistogram().size());
+        assertEquals(2L, distribution.getHistogram().get(10_000_000 * 0.01));
+        assertEquals(List.of(1L, 1L, 2L, 1L), List.copyOf(distribution.getHistogram().values()));
+        assertEquals(4L, merged.getHistogram().get(10_000_000 * 0.01));
+        assertEquals(12, merged.getCount());
+    }
+
+    @Test
+    public void testMergeMatchesSinglePass() {
+        Random random = new Random(11);
+        PriceDistribution whole = new PriceDistribution(250);
+        List<PriceDistribution> parts = new ArrayList<>();
+        for (int part = 0; part < 4; part++) {
+            PriceDistribution distribution = new PriceDistribution(250);
+            for (int i = 0; i < 5_000; i++) {
+                double price = 1_000_000 + (part + 1) * 1_000 + random.nextGaussian() * 500;
+                distribution.accept(price);
+                whole.accept(price);
+            }
+            parts.add(distribution);
+        }
+        PriceDistribution merged = new PriceDistribution(250);
+        for (int part = parts.size() - 1; part >= 0; part--) {
+            merged.merge(parts.get(part));
+        }
+
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getMin(), merged.getMin());
+        assertEquals(whole.getMax(), merged.getMax());
+        assertEquals(whole.getMean(), merged.getMean(), 1e-6);
+        assertEquals(whole.getStandardDeviation(), merged.getStandardDeviation(), 1e-6);
+        assertEquals(whole.getHistogram(), merged.getHistogram());
+        assertEquals(whole.getPercentile(50), merged.getPercentile(50), 100);
+    }
+
+    @Test
+    public void testRouteAndCarrierDistributions() {
+        List<TicketData> tickets = List.of(
+                ticket().route("A", "B").build(),
+                ticket().route("A", "B").carrier("SU").price(300).build(),
+                ticket().route("A", "B").price(200).build(),
+                ticket().route("A", "C").price(1000).build());
+
+        RoutePriceDistributions distributions = TicketDataAnalyzer.calculatePriceDistributions(tickets, 50);
+        RoutePriceDistributions combined = new RoutePriceDistributions(50);
+        combined.accept(tickets.get(0));
+        RoutePriceDistributions batch = new RoutePriceDistributions(50);
+        for (TicketData ticket : tickets.subList(1, tickets.size())) {
+            batch.accept(ticket);
+        }
+        combined.combine(batch);
+
+        for (RoutePriceDistributions result : List.of(distributions, combined)) {
+            assertEquals(List.of(new RouteKey("A", "B"), new RouteKey("A", "C")), result.routes());
+            assertEquals(2, result.carriers("A", "B").get("TK").getCount());
+            assertEquals(150, result.carriers("A", "B").get("TK").getMean());
+            assertEquals(300, result.carriers("A", "B").get("SU").getMax());
+            assertEquals(3, result.route("A", "B").getCount());
+            assertEquals(200, result.route("A", "B").getMean());
+            assertEquals(0, result.route("B", "A").getCount());
+            assertTrue(result.carriers("B", "A").isEmpty());
+        }
+        assertThrows(IllegalArgumentException.class, () -> combined.combine(new RoutePriceDistributions(10)));
+    }
+}
@@ -0,0 +1,129 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantilesTest {
+    private static double sortedMedian(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = sorted.length;
+        if (size % 2 == 1) {
+            return sorted[size / 2];
+        }
+        return (sorted[size / 2 - 1] + sorted[size / 2]) / 2.0;
+    }
+
+    @Test
+    public void testMedianMatchesSort() {
+        Random random = new Random(1);
+        for (int size = 1; size < 300; size++) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                // Few distinct values exercise runs of duplicates.
+                values[i] = size % 3 == 0 ? random.nextInt(5) : random.nextDouble() * 1000;
+            }
+            double expected = sortedMedian(values);
+
+            assertEquals(expected, Quantiles.median(values.clone(), size));
+        }
+    }
+
+    @Test
+    public void testMedianOfSortedInputs() {
+        double[] ascending = new double[10_001];
+        double[] descending = new double[10_000];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[i] = i;
+        }
+        for (int i = 0; i < descending.length; i++) {
+            descending[i] = descending.length - i;
+        }
+
+        assertEquals(5000, Quantiles.median(ascending, ascending.length));
+        assertEquals(5000.5, Quantiles.median(descending, descending.length));
+    }
+
+    @Test
+    public void testMedianUsesPrefixOnly() {
+        double[] values = {3, 1, 2, 100, 100};
+
+        assertEquals(2, Quantiles.median(values, 3));
+        assertEquals(Double.NaN, Quantiles.median(values, 0));
+    }
+
+    @Test
+    public void testSketchWithinRankError() {
+        Random random = new Random(3);
+        int size = 200_000;
+        double[] values = new double[size];
+        QuantileSketch sketch = QuantileSketch.withRankError(0.01);
+        for (int i = 0; i < size; i++) {
+            values[i] = Math.exp(random.nextGaussian()) * 10000;
+            sketch.accept(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[]{0.01, 0.1, 0.5, 0.9, 0.99}) {
+            double estimate = sketch.quantile(quantile);
+            int rank = Arrays.binarySearch(values, estimate);
+            assertTrue(Math.abs((double) rank / size - quantile) < 0.02, "quantile " + quantile);
+        }
+        assertEquals(values[0], sketch.getMin());
+        assertEquals(values[size - 1], sketch.getMax());
+        assertEquals(size, sketch.getCount());
+        assertTrue(sketch.getRetained() < 5_000);
+    }
+
+    @Test
+    public void testSketchMerge() {
+        QuantileSketch left = new QuantileSketch(64);
+        QuantileSketch right = new QuantileSketch(64);
+        for (int i = 0; i < 50_000; i++) {
+            left.accept(i);
+            right.accept(50_000 + i);
+        }
+
+        QuantileSketch merged = left.merge(right);
+
+        assertEquals(100_000, merged.getCount());
+        assertEquals(0, merged.getMin());
+        assertEquals(99_999, merged.getMax());
+        assertEquals(50_000, merged.quantile(0.5), 100_000 * 0.05);
+    }
+
+    @Test
+    public void testSketchMergeIntoShallowerSketch() {
+        QuantileSketch deep = new QuantileSketch(64);
+        for (int i = 0; i < 100_000; i++) {
+            deep.accept(i);
+        }
+
+        QuantileSketch merged = new QuantileSketch(64).merge(deep);
+
+        assertEquals(100_000, merged.getCount());
+        assertEquals(50_000, merged.quantile(0.5), 100_000 * 0.05);
+    }
+
+    @Test
+    public void testSketchSmallAndEmpty() {
+        QuantileSketch sketch = new QuantileSketch();
+
+        assertEquals(Double.NaN, sketch.quantile(0.5));
+        sketch.accept(3);
+        sketch.accept(1);
+        sketch.accept(2);
+        assertEquals(2, sketch.quantile(0.5));
+        sketch.accept(0);
+        sketch.accept(-1);
+        assertEquals(1, sketch.quantile(0.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(2));
+    }
+}
@@ -0,0 +1,63 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteAggregatesTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSidecarRoundTrip() throws IOException {
+        Path source = tempDir.resolve("tickets.json");
+        Files.copy(Path.of("tickets.json"), source);
+        String filepath = source.toString();
+        List<TicketData> tickets = TicketJsonReader.readTickets(filepath);
+        assertNotNull(tickets);
+
+        assertNull(RouteAggregates.readIfCurrent(filepath));
+        RouteAggregates computed = RouteAggregates.compute(tickets);
+        computed.write(filepath);
+        RouteAggregates loaded = RouteAggregates.readIfCurrent(filepath);
+
+        assertNotNull(loaded);
+        assertEquals(List.copyOf(computed.reports()), List.copyOf(loaded.reports()));
+        for (Map.Entry<RouteKey, RouteStatistics> entry : TicketDataAnalyzer.calculateAllRouteStatistics(tickets).entrySet()) {
+            RouteKey route = entry.getKey();
+            assertEquals(RouteReport.of(entry.getValue()), loaded.report(route.originName(), route.destinationName()));
+        }
+        RouteReport missing = loaded.report("Нигде", "Никуда");
+        assertEquals(0, missing.count());
+        assertTrue(Double.isNaN(missing.averagePrice()));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testChangedSourceIsNotServed() throws IOException {
+        Path source = tempDir.resolve("tickets.json");
+        Files.copy(Path.of("tickets.json"), source);
+        String filepath = source.toString();
+        RouteAggregates.compute(TicketJsonReader.readTickets(filepath)).write(filepath);
+        assertNotNull(RouteAggregates.readIfCurrent(filepath));
+
+        Files.writeString(source, "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertNull(RouteAggregates.readIfCurrent(filepath));
+    }
+}
@@ -0,0 +1,55 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static task.TestTickets.ticket;
+
+class RouteIndexTest {
+    private final List<TicketData> tickets = List.of(
+            ticket().carrier("S7").price(12400).build(),
+            ticket().originName("Ларнака").price(5000).build(),
+            ticket().price(12600).build(),
+            ticket().route("Владивосток", "Уфа").carrier("SU").price(7000).build(),
+            ticket().carrier("S7").price(13000).build()
+    );
+
+    @Test
+    public void testRoutesAndPartitions() {
+        RouteIndex index = RouteIndex.build(tickets);
+
+        assertEquals(5, index.size());
+        assertEquals(List.of(new RouteKey("Владивосток", "Тель-Авив"), new RouteKey("Владивосток", "Уфа"),
+                new RouteKey("Ларнака", "Тель-Авив")), index.routes());
+        assertEquals(List.of(tickets.get(0), tickets.get(2), tickets.get(4)), index.tickets("Владивосток", "Тель-Авив"));
+        assertTrue(index.tickets("Уфа", "Владивосток").isEmpty());
+    }
+
+    @Test
+    public void testAllStatisticsMatchAnalyzer() {
+        Map<RouteKey, RouteStatistics> allStatistics = TicketDataAnalyzer.calculateAllRouteStatistics(tickets);
+
+        assertEquals(3, allStatistics.size());
+        for (Map.Entry<RouteKey, RouteStatistics> entry : allStatistics.entrySet()) {
+            String origin = entry.getKey().originName();
+            String destination = entry.getKey().destinationName();
+            RouteStatistics statistics = entry.getValue();
+
+            assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(tickets, origin, destination), statistics.getMinFlightsTimes());
+            assertEquals(TicketDataAnalyzer.calculateAveragePrice(tickets, origin, destination), statistics.getAveragePrice());
+            assertEquals(TicketDataAnalyzer.calculateMedianPrice(tickets, origin, destination), statistics.getMedianPrice());
+        }
+    }
+
+    @Test
+    public void testMissingRoute() {
+        RouteStatistics statistics = RouteIndex.build(tickets).statistics("Wrong1", "Wrong2");
+
+        assertEquals(0, statistics.getCount());
+        assertEquals(Double.NaN, statistics.getAverageAndMedianPriceDifference());
+    }
+}
@@ -0,0 +1,88 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static task.TestTickets.ticket;
+
+class RouteStatisticsTest {
+    @Test
+    public void testAcceptFiltersRoute() {
+        RouteStatistics statistics = new RouteStatistics("Владивосток", "Тель-Авив");
+        statistics.accept(ticket().carrier("S7").hours(7, 11).price(12400).build());
+        statistics.accept(ticket().originName("Ларнака").carrier("S7").hours(7, 8).build());
+        statistics.accept(ticket().hours(9, 12).price(12600).build());
+        statistics.accept(ticket().carrier("S7").hours(7, 10).price(12500).build());
+
+        Map<String, Duration> minFlightTimes = statistics.getMinFlightsTimes();
+
+        assertEquals(3, statistics.getCount());
+        assertEquals(2, minFlightTimes.size());
+        assertEquals(Duration.ofHours(3), minFlightTimes.get("S7"));
+        assertEquals(Duration.ofHours(3), minFlightTimes.get("TK"));
+        assertEquals(12500, statistics.getAveragePrice());
+        assertEquals(12500, statistics.getMedianPrice());
+        assertEquals(0.0, statistics.getAverageAndMedianPriceDifference());
+    }
+
+    @Test
+    public void testMatchesAnalyzer() {
+        Random random = new Random(42);
+        List<TicketData> tickets = random.ints(1_000, 0, 4)
+                .mapToObj(i -> ticket().originName(i == 0 ? "Ларнака" : "Владивосток").carrier("C" + (i * 7 % 5))
+                        .hours(random.nextInt(12), 12 + random.nextInt(12)).price(random.nextDouble() * 20000).build())
+                .toList();
+
+        RouteStatistics statistics = TicketDataAnalyzer.calculateRouteStatistics(tickets, "Владивосток", "Тель-Авив");
+
+        assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(tickets, "Владивосток", "Тель-Авив"),
+                statistics.getMinFlightsTimes());
+        assertEquals(TicketDataAnalyzer.calculateAveragePrice(tickets, "Владивосток", "Тель-Авив"),
+                statistics.getAveragePrice());
+        assertEquals(TicketDataAnalyzer.calculateMedianPrice(tickets, "Владивосток", "Тель-Авив"),
+                statistics.getMedianPrice());
+    }
+
+    @Test
+    public void testCombineEqualsSequential() {
+        Random random = new Random(7);
+        List<TicketData> tickets = random.ints(501, 0, 3)
+                .mapToObj(i -> ticket().carrier("C" + i)
+                        .hours(random.nextInt(12), 12 + random.nextInt(12)).price(random.nextDouble() * 20000).build())
+                .toList();
+
+        RouteStatistics sequential = TicketDataAnalyzer.calculateRouteStatistics(tickets, "Владивосток", "Тель-Авив");
+        RouteStatistics combined = TicketDataAnalyzer.calculateRouteStatistics(tickets.subList(0, 200), "Владивосток", "Тель-Авив")
+                .combine(TicketDataAnalyzer.calculateRouteStatistics(tickets.subList(200, 501), "Владивосток", "Тель-Авив"));
+
+        assertEquals(sequential.getCount(), combined.getCount());
+        assertEquals(sequential.getMinFlightsTimes(), combined.getMinFlightsTimes());
+        assertEquals(sequential.getAveragePrice(), combined.getAveragePrice());
+        assertEquals(sequential.getMedianPrice(), combined.getMedianPrice());
+    }
+
+    @Test
+    public void testCombineDifferentRoutes() {
+        RouteStatistics statistics = new RouteStatistics("Владивосток", "Тель-Авив");
+
+        assertThrows(IllegalArgumentException.class, () -> statistics.combine(new RouteStatistics("Ларнака", "Тель-Авив")));
+    }
+
+    @Test
+    public void testNoTickets() {
+        RouteStatistics statistics = new RouteStatistics("Владивосток", "Тель-Авив");
+
+        assertEquals(0, statistics.getCount());
+        assertTrue(statistics.getMinFlightsTimes().isEmpty());
+        assertEquals(Double.NaN, statistics.getAveragePrice());
+        assertEquals(Double.NaN, statistics.getMedianPrice());
+        assertEquals(Double.NaN, statistics.getAverageAndMedianPriceDifference());
+    }
+}
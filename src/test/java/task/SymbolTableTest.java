@@ -0,0 +1,56 @@
+package task;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SymbolTableTest {
+    @Test
+    public void testCanonicalBeyondInitialCapacity() {
+        SymbolTable table = new SymbolTable();
+        List<String> first = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String symbol = "Symbol" + i;
+            first.add(symbol);
+            assertSame(symbol, table.canonical(symbol));
+        }
+
+        assertEquals(100, table.size());
+        for (int i = 0; i < 100; i++) {
+            String copy = new String(first.get(i));
+            assertNotSame(first.get(i), copy);
+            assertSame(first.get(i), table.canonical(copy));
+            assertEquals(i, table.id(copy));
+            assertSame(first.get(i), table.symbol(i));
+        }
+        assertEquals(100, table.size());
+    }
+
+    @Test
+    public void testAdapterBeyondInitialCapacity() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(String.class, new InterningStringAdapter(new SymbolTable()))
+                .create();
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 40; i++) {
+            json.append(i == 0 ? "" : ",").append("\"Carrier").append(i % 20).append('"');
+        }
+        json.append(']');
+
+        List<String> values = gson.fromJson(json.toString(), new TypeToken<List<String>>() {}.getType());
+
+        assertEquals(40, values.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("Carrier" + i, values.get(i));
+            assertSame(values.get(i), values.get(i + 20));
+        }
+    }
+}
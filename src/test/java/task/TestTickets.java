@@ -0,0 +1,114 @@
+package task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ticket fixtures shared by the tests.
+ * <p>
+ * {@link #ticket()} starts from a direct TK flight from Владивосток (VVO) to Тель-Авив (TLV) departing on
+ * 2024-07-01 at 06:00 for 4 hours and costing 100; tests override only the fields they care about.
+ * </p>
+ */
+final class TestTickets {
+    static final LocalDateTime DAY = LocalDateTime.of(2024, 7, 1, 0, 0);
+
+    private TestTickets() {
+    }
+
+    /**
+     * Returns a builder of a ticket with the default values.
+     */
+    static Builder ticket() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private String origin = "VVO";
+        private String originName = "Владивосток";
+        private String destination = "TLV";
+        private String destinationName = "Тель-Авив";
+        private LocalDateTime departure = DAY.plusHours(6);
+        private LocalDateTime arrival = DAY.plusHours(10);
+        private String carrier = "TK";
+        private int stops;
+        private double price = 100;
+
+        private Builder() {
+        }
+
+        Builder airports(String origin, String destination) {
+            this.origin = origin;
+            this.destination = destination;
+            return this;
+        }
+
+        Builder route(String originName, String destinationName) {
+            this.originName = originName;
+            this.destinationName = destinationName;
+            return this;
+        }
+
+        Builder originName(String originName) {
+            this.originName = originName;
+            return this;
+        }
+
+        /**
+         * Sets the departure and arrival.
+         */
+        Builder times(LocalDateTime departure, LocalDateTime arrival) {
+            this.departure = departure;
+            this.arrival = arrival;
+            return this;
+        }
+
+        /**
+         * Sets the departure and arrival to whole hours of {@link #DAY}.
+         */
+        Builder hours(int departureHour, int arrivalHour) {
+            return times(DAY.plusHours(departureHour), DAY.plusHours(arrivalHour));
+        }
+
+        /**
+         * Sets the departure and arrival to minutes of {@link #DAY}.
+         */
+        Builder minutes(int departureMinute, int arrivalMinute) {
+            return times(DAY.plusMinutes(departureMinute), DAY.plusMinutes(arrivalMinute));
+        }
+
+        /**
+         * Sets the departure and an arrival the given number of minutes later.
+         */
+        Builder flight(LocalDateTime departure, int minutes) {
+            return times(departure, departure.plusMinutes(minutes));
+        }
+
+        /**
+         * Sets the arrival the given number of minutes after the departure.
+         */
+        Builder flightMinutes(int minutes) {
+            this.arrival = departure.plusMinutes(minutes);
+            return this;
+        }
+
+        Builder carrier(String carrier) {
+            this.carrier = carrier;
+            return this;
+        }
+
+        Builder stops(int stops) {
+            this.stops = stops;
+            return this;
+        }
+
+        Builder price(double price) {
+            this.price = price;
+            return this;
+        }
+
+        TicketData build() {
+            return new TicketData(origin, originName, destination, destinationName, departure.toLocalDate(),
+                    departure.toLocalTime(), arrival.toLocalDate(), arrival.toLocalTime(), carrier, stops, price);
+        }
+    }
+}
@@ -5,8 +5,10 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -159,4 +161,53 @@ class TicketDataAnalyzerTest {
         assertEquals(TicketDataAnalyzer.calculateMedianPrice(tickets, "Wrong1", "Wrong2"), Double.NaN);
         assertEquals(TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, "Wrong1", "Wrong2"), Double.NaN);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCalculateMinFlightsTimesAcrossDaysAndSeconds() {
+        List<TicketData> tickets = List.of(
+                new TicketData("VVO", "Владивосток", "TLV", "Тель-Авив",
+                        LocalDate.of(2024, 12, 31), LocalTime.of(23, 10),
+                        LocalDate.of(2025, 1, 2), LocalTime.of(1, 5),
+                        "S7", 1, 12400),
+                new TicketData("VVO", "Владивосток", "TLV", "Тель-Авив",
+                        LocalDate.of(2024, 7, 1), LocalTime.of(9, 0, 30, 500),
+                        LocalDate.of(2024, 7, 1), LocalTime.of(8, 59, 15),
+                        "TK", 0, 13000)
+        );
+
+        Map<String, Duration> result = TicketDataAnalyzer.calculateMinFlightsTimes(tickets, "Владивосток", "Тель-Авив");
+
+        assertEquals(Duration.ofHours(25).plusMinutes(55), result.get("S7"));
+        assertEquals(Duration.between(LocalTime.of(9, 0, 30, 500), LocalTime.of(8, 59, 15)), result.get("TK"));
+    }
+
+    @Test
+    public void testBatchRouteStatisticsMatchSingleRouteQueries() {
+        String[] cities = {"A", "B", "C", "D"};
+        Random random = new Random(13);
+        List<TicketData> tickets = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate date = LocalDate.of(2024, 7, 1 + random.nextInt(28));
+            tickets.add(new TicketData("AAA", cities[random.nextInt(cities.length)], "BBB",
+                    cities[random.nextInt(cities.length)], date, LocalTime.of(random.nextInt(12), 0),
+                    date, LocalTime.of(12 + random.nextInt(12), random.nextInt(60)),
+                    random.nextBoolean() ? "S7" : "TK", 0, 1_000 + random.nextInt(50_000) / 7.0));
+        }
+        List<RouteKey> routes = List.of(new RouteKey("A", "B"), new RouteKey("C", "A"), new RouteKey("A", "B"),
+                new RouteKey("D", "D"), new RouteKey("A", "Z"));
+
+        Map<RouteKey, RouteStatistics> results = TicketDataAnalyzer.calculateRouteStatistics(tickets, routes);
+
+        assertEquals(List.of(routes.get(0), routes.get(1), routes.get(3), routes.get(4)), List.copyOf(results.keySet()));
+        for (RouteKey route : results.keySet()) {
+            RouteStatistics statistics = results.get(route);
+            String origin = route.originName();
+            String destination = route.destinationName();
+            assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(tickets, origin, destination),
+                    statistics.getMinFlightsTimes());
+            assertEquals(TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, origin, destination),
+                    statistics.getAverageAndMedianPriceDifference());
+        }
+        assertEquals(0, results.get(new RouteKey("A", "Z")).getCount());
+    }
+}
@@ -0,0 +1,140 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketDatasetGeneratorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWrittenFilesReadBack() throws IOException {
+        TicketDatasetGenerator generator = TicketDatasetGenerator.defaults().withRoutesAndCarriers(20, 5);
+        List<TicketData> expected = generator.tickets(2_000).toList();
+
+        assertEquals(expected, generator.tickets(2_000).toList());
+        assertNotEquals(expected, generator.withSeed(7).tickets(2_000).toList());
+        for (String name : new String[]{"tickets.json", "tickets.ndjson", "tickets.json.gz", "tickets.ndjson.gz"}) {
+            String filepath = tempDir.resolve(name).toString();
+            generator.write(filepath, expected.size());
+            assertEquals(expected, TicketJsonReader.readTickets(filepath), name);
+        }
+    }
+
+    @Test
+    public void testDistributions() {
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        TicketDatasetGenerator generator = TicketDatasetGenerator.defaults()
+                .withRoutesAndCarriers(50, 8)
+                .withDepartureDates(first, 30)
+                .withPrices(10_000, 0.2)
+                .withSkew(1.2);
+        List<TicketData> tickets = generator.tickets(20_000).toList();
+
+        Map<String, Long> routes = tickets.stream()
+                .collect(Collectors.groupingBy(TicketData::originName, Collectors.counting()));
+        long firstRoute = routes.get(TicketDatasetGenerator.FIRST_ORIGIN_NAME);
+        assertEquals(firstRoute, routes.values().stream().mapToLong(Long::longValue).max().orElseThrow());
+        assertTrue(firstRoute > 10 * routes.getOrDefault(TicketDatasetGenerator.originName(49), 0L));
+        assertTrue(tickets.stream().map(TicketData::carrier).distinct().count() <= 8);
+        for (TicketData ticket : tickets) {
+            assertTrue(!ticket.departureDate().isBefore(first) && ticket.departureDate().isBefore(first.plusDays(30)));
+            assertTrue(ticket.arrivalDate().atTime(ticket.arrivalTime())
+                    .isAfter(ticket.departureDate().atTime(ticket.departureTime())));
+            assertTrue(ticket.price() >= 1 && ticket.price() == Math.rint(ticket.price()));
+        }
+
+        Map<RouteKey, Long> queries = generator.routeQueries(5_000)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        RouteKey hottest = new RouteKey(TicketDatasetGenerator.FIRST_ORIGIN_NAME, TicketDatasetGenerator.FIRST_DESTINATION_NAME);
+        assertEquals(hottest, queries.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey());
+    }
+
+    @Test
+    public void testInvalidDescription() {
+        TicketDatasetGenerator generator = TicketDatasetGenerator.defaults();
+        assertThrows(IllegalArgumentException.class, () -> generator.withRoutesAndCarriers(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> generator.withPrices(0, 0.3));
+        assertThrows(IllegalArgumentException.class, () -> generator.withSkew(-1));
+    }
+
+    @Test
+    public void testLoadTestDriver() throws IOException {
+        TicketDatasetGenerator generator = TicketDatasetGenerator.defaults();
+        String filepath = tempDir.resolve("load.ndjson").toString();
+        generator.write(filepath, 5_000);
+
+        LoadTestDriver.Report report = LoadTestDriver.run(filepath, generator.routeQueries(200).toList(), 2);
+
+        assertNotNull(report);
+        assertEquals(5_000, report.tickets());
+        assertEquals(200, report.queries());
+        assertEquals(200, report.queryLatency().getCount());
+        assertTrue(report.peakHeapBytes() > 0);
+        assertTrue(report.format().contains("queries=200"));
+
+        List<RouteKey> failing = new ArrayList<>(generator.routeQueries(10).toList());
+        failing.set(5, null);
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> LoadTestDriver.run(filepath, failing, 2));
+        assertInstanceOf(NullPointerException.class, failure.getCause());
+    }
+
+    @Test
+    public void testLoadTestDriverInterrupted() throws IOException {
+        TicketDatasetGenerator generator = TicketDatasetGenerator.defaults();
+        String filepath = tempDir.resolve("interrupted.ndjson").toString();
+        generator.write(filepath, 100);
+        List<RouteKey> routes = generator.routeQueries(10).toList();
+        Thread caller = Thread.currentThread();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        // The first query interrupts the caller once and keeps its worker busy, so the caller is still waiting for it.
+        List<RouteKey> interrupting = new AbstractList<>() {
+            @Override
+            public RouteKey get(int index) {
+                if (!interrupted.compareAndSet(false, true)) {
+                    return routes.get(index);
+                }
+                caller.interrupt();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return routes.get(index);
+            }
+
+            @Override
+            public int size() {
+                return routes.size();
+            }
+        };
+
+        try {
+            IllegalStateException failure = assertThrows(IllegalStateException.class,
+                    () -> LoadTestDriver.run(filepath, interrupting, 1));
+            assertInstanceOf(InterruptedException.class, failure.getCause());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
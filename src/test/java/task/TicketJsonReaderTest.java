@@ -6,10 +6,20 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -80,4 +90,171 @@ class TicketJsonReaderTest {
         List<TicketData> tickets = TicketJsonReader.readTickets(tempFile.getPath());
         assertNull(tickets);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReadTickets_streamingMatchesFullRead() {
+        List<TicketData> expected = TicketJsonReader.readTickets("tickets.json");
+        List<TicketData> streamed = new ArrayList<>();
+
+        long count = TicketJsonReader.readTickets("tickets.json", streamed::add);
+
+        assertNotNull(expected);
+        assertEquals(expected.size(), count);
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    void testReadTickets_streamingSkipsOtherProperties() throws IOException {
+        File tempFile = tempDir.resolve("tickets_extra.json").toFile();
+        try (FileWriter writer = new FileWriter(tempFile, StandardCharsets.UTF_8)) {
+            writer.write("""
+                    {"source": {"name": "feed", "ids": [1, 2]}, "tickets": [{
+                        "origin": "VVO",
+                        "origin_name": "Владивосток",
+                        "destination": "TLV",
+                        "destination_name": "Тель-Авив",
+                        "departure_date": "12.05.18",
+                        "departure_time": "9:20",
+                        "arrival_date": "13.05.18",
+                        "arrival_time": "02:10",
+                        "carrier": "TK",
+                        "stops": 1,
+                        "price": 12400.5
+                      }]}""");
+        }
+
+        List<TicketData> tickets = new ArrayList<>();
+        long count = TicketJsonReader.readTickets(tempFile.getPath(), tickets::add);
+
+        assertEquals(1, count);
+        assertEquals(LocalTime.of(9, 20), tickets.get(0).departureTime());
+        assertEquals(LocalDate.of(2018, 5, 13), tickets.get(0).arrivalDate());
+        assertEquals(12400.5, tickets.get(0).price());
+    }
+
+    @Test
+    void testReadTickets_streamingWithoutTickets() throws IOException {
+        File tempFile = tempDir.resolve("empty_stream.json").toFile();
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write("{ \"invalid\": \"data\" }");
+        }
+
+        assertEquals(-1, TicketJsonReader.readTickets(tempFile.getPath(), ticket -> fail()));
+        assertEquals(-1, TicketJsonReader.readTickets("non_existent_file.json", ticket -> fail()));
+        try (Stream<TicketData> stream = TicketJsonReader.streamTickets(tempFile.getPath())) {
+            assertEquals(0, stream.count());
+        }
+        assertNull(TicketJsonReader.streamTicketsIfPresent(tempFile.getPath()));
+        try (Stream<TicketData> stream = TicketJsonReader.streamTicketsIfPresent("tickets.json")) {
+            assertNotNull(stream);
+            assertEquals(TicketJsonReader.readTickets("tickets.json"), stream.toList());
+        }
+    }
+
+    @Test
+    void testStreamTickets_lazyStream() throws IOException {
+        List<TicketData> expected = TicketJsonReader.readTickets("tickets.json");
+
+        try (Stream<TicketData> stream = TicketJsonReader.streamTickets("tickets.json")) {
+            assertEquals(expected, stream.toList());
+        }
+        try (Stream<TicketData> stream = TicketJsonReader.streamTickets("tickets.json")) {
+            assertEquals(expected.get(0), stream.findFirst().orElseThrow());
+        }
+    }
+
+    @Test
+    void testReadTickets_internsStrings() throws IOException {
+        Path ndjson = tempDir.resolve("interned.ndjson");
+        Files.writeString(ndjson, ndjson(20), StandardCharsets.UTF_8);
+
+        for (String path : List.of("tickets.json", ndjson.toString())) {
+            List<TicketData> tickets = TicketJsonReader.readTickets(path);
+            assertNotNull(tickets);
+            assertInterned(tickets);
+            try (Stream<TicketData> stream = TicketJsonReader.streamTickets(path)) {
+                List<TicketData> streamed = stream.toList();
+                assertEquals(tickets, streamed);
+                assertInterned(streamed);
+            }
+        }
+    }
+
+    private static void assertInterned(List<TicketData> tickets) {
+        Map<String, String> canonical = new HashMap<>();
+        for (TicketData ticket : tickets) {
+            for (String value : List.of(ticket.origin(), ticket.originName(), ticket.destination(),
+                    ticket.destinationName(), ticket.carrier())) {
+                assertSame(canonical.computeIfAbsent(value, key -> value), value);
+            }
+        }
+    }
+
+    private static String ndjson(int count) {
+        StringBuilder sb = new StringBuilder("\uFEFF");
+        for (int i = 0; i < count; i++) {
+            sb.append("{\"origin\": \"VVO\", \"origin_name\": \"Владивосток\", \"destination\": \"TLV\",")
+                    .append(" \"destination_name\": \"Тель-Авив\", \"departure_date\": \"12.05.18\",")
+                    .append(" \"departure_time\": \"").append(i % 24).append(":00\", \"arrival_date\": \"13.05.18\",")
+                    .append(" \"arrival_time\": \"22:10\", \"carrier\": \"C").append(i % 5).append("\", \"stops\": ")
+                    .append(i % 3).append(", \"price\": ").append(10000 + i * 7 % 1000).append("}")
+                    .append(i % 10 == 0 ? "\r\n\n" : "\n");
+        }
+        return sb.toString();
+    }
+
+    private static void gzip(Path source, Path target) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            Files.copy(source, out);
+        }
+    }
+
+    @Test
+    void testReadTickets_ndjsonAndGzip() throws IOException {
+        Path ndjson = tempDir.resolve("tickets.ndjson");
+        Files.writeString(ndjson, ndjson(200), StandardCharsets.UTF_8);
+        Path compressedNdjson = tempDir.resolve("tickets.ndjson.gz");
+        gzip(ndjson, compressedNdjson);
+        Path compressedJson = tempDir.resolve("tickets.json.gz");
+        gzip(Path.of("tickets.json"), compressedJson);
+
+        List<TicketData> tickets = TicketJsonReader.readTickets(ndjson.toString());
+        assertNotNull(tickets);
+        assertEquals(200, tickets.size());
+        assertEquals(LocalTime.of(23, 0), tickets.get(23).departureTime());
+        assertEquals("C3", tickets.get(23).carrier());
+
+        assertEquals(tickets, TicketJsonReader.readTickets(compressedNdjson.toString()));
+        List<TicketData> streamed = new ArrayList<>();
+        assertEquals(200, TicketJsonReader.readTickets(ndjson.toString(), streamed::add));
+        assertEquals(tickets, streamed);
+        try (Stream<TicketData> stream = TicketJsonReader.streamTickets(compressedNdjson.toString())) {
+            assertEquals(tickets, stream.toList());
+        }
+        assertEquals(TicketJsonReader.readTickets("tickets.json"), TicketJsonReader.readTickets(compressedJson.toString()));
+    }
+
+    @Test
+    void testCollectTickets_parallelChunksMatchSequential() throws IOException {
+        Path ndjson = tempDir.resolve("tickets.jsonl");
+        Files.writeString(ndjson, ndjson(3_000), StandardCharsets.UTF_8);
+        List<TicketData> expected = new ArrayList<>();
+        TicketJsonReader.readTickets(ndjson.toString(), expected::add);
+
+        assertEquals(expected, TicketJsonReader.collectTickets(ndjson.toString(), Collectors.toList(), 1024));
+        RouteStatistics statistics = TicketJsonReader.collectTickets(ndjson.toString(),
+                Collector.of(() -> new RouteStatistics("Владивосток", "Тель-Авив"), RouteStatistics::accept,
+                        RouteStatistics::combine), 1024);
+        assertNotNull(statistics);
+        assertEquals(TicketDataAnalyzer.calculateAveragePrice(expected, "Владивосток", "Тель-Авив"),
+                statistics.getAveragePrice());
+        assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(expected, "Владивосток", "Тель-Авив"),
+                statistics.getMinFlightsTimes());
+
+        Path empty = Files.writeString(tempDir.resolve("empty.ndjson"), "");
+        assertEquals(List.of(), TicketJsonReader.collectTickets(empty.toString(), Collectors.toList(), 1024));
+        assertNull(TicketJsonReader.collectTickets("non_existent_file.ndjson", Collectors.toList()));
+        assertEquals(TicketJsonReader.readTickets("tickets.json"),
+                TicketJsonReader.collectTickets("tickets.json", Collectors.toList()));
+    }
+}
@@ -0,0 +1,97 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static task.TestTickets.ticket;
+
+class TicketQueryIndexTest {
+    private static void assertSameStatistics(RouteStatistics expected, RouteReport actual) {
+        assertEquals(expected.getCount(), actual.count());
+        assertEquals(expected.getMinFlightsTimes(), actual.minFlightTimes());
+        assertEquals(expected.getAveragePrice(), actual.averagePrice());
+        assertEquals(expected.getMedianPrice(), actual.medianPrice());
+    }
+
+    @Test
+    public void testFilterCriteria() {
+        LocalDateTime morning = LocalDateTime.of(2018, 5, 12, 8, 0);
+        TicketData direct = ticket().flight(morning, 400).carrier("S7").build();
+        TicketData late = ticket().flight(morning.withHour(23), 300).stops(2).price(200).build();
+        TicketData nextDay = ticket().flight(morning.plusDays(1).withHour(1), 500).carrier("S7").stops(1).price(300).build();
+        TicketData otherRoute = ticket().originName("Ларнака").flight(morning, 100).carrier("S7").price(50).build();
+        TicketQueryIndex index = TicketQueryIndex.build(List.of(direct, late, nextDay, otherRoute));
+        TicketFilter route = TicketFilter.route("Владивосток", "Тель-Авив");
+
+        assertEquals(3, index.query(route).count());
+        assertEquals(2, index.query(route.withDepartureDates(null, LocalDate.of(2018, 5, 12))).count());
+        assertEquals(1, index.query(route.withDepartureDates(LocalDate.of(2018, 5, 13), null)).count());
+        RouteReport overnight = index.query(route.withDepartureTimes(LocalTime.of(22, 0), LocalTime.of(2, 0)));
+        assertEquals(2, overnight.count());
+        assertEquals(Duration.ofMinutes(300), overnight.minFlightTimes().get("TK"));
+        RouteReport fewStops = index.query(route.withMaxStops(1).withCarriers(Set.of("S7", "SU")));
+        assertEquals(2, fewStops.count());
+        assertEquals(Map.of("S7", Duration.ofMinutes(400)), fewStops.minFlightTimes());
+        assertEquals(200.0, fewStops.averagePrice());
+        assertEquals(100.0, index.query(route.withMaxStops(0)).medianPrice());
+
+        RouteReport none = index.query(route.withCarriers(Set.of("SU")));
+        assertEquals(0, none.count());
+        assertTrue(Double.isNaN(none.averageAndMedianPriceDifference()));
+        assertEquals(0, index.query(TicketFilter.route("Уфа", "Ларнака")).count());
+
+        assertTrue(route.withMaxStops(1).test(nextDay));
+        assertFalse(route.withMaxStops(1).test(late));
+        assertThrows(IllegalArgumentException.class, () -> route.withMaxStops(-1));
+        assertThrows(IllegalArgumentException.class, () -> route.withDepartureTimes(LocalTime.NOON, null));
+    }
+
+    @Test
+    public void testMatchesAnalyzer() {
+        Random random = new Random(17);
+        List<TicketData> tickets = new ArrayList<>();
+        String[] carriers = {"S7", "TK", "SU", "BA", "LH"};
+        for (int i = 0; i < 5_000; i++) {
+            LocalDateTime departure = LocalDateTime.of(2018, 1, 1, 0, 0)
+                    .plusMinutes(random.nextInt(365 * 24 * 60));
+            tickets.add(ticket().originName(random.nextInt(4) == 0 ? "Ларнака" : "Владивосток")
+                    .flight(departure, 60 + random.nextInt(900)).carrier(carriers[random.nextInt(carriers.length)])
+                    .stops(random.nextInt(4)).price(random.nextInt(2_000_000) / 100.0).build());
+        }
+        TicketQueryIndex index = TicketQueryIndex.build(tickets);
+
+        for (int i = 0; i < 200; i++) {
+            TicketFilter filter = TicketFilter.route(i % 7 == 0 ? "Ларнака" : "Владивосток", "Тель-Авив");
+            if (random.nextBoolean()) {
+                LocalDate first = LocalDate.of(2018, 1, 1).plusDays(random.nextInt(365));
+                filter = filter.withDepartureDates(random.nextBoolean() ? first : null, first.plusDays(random.nextInt(60)));
+            }
+            if (random.nextBoolean()) {
+                filter = filter.withDepartureTimes(LocalTime.of(random.nextInt(24), random.nextInt(60)),
+                        LocalTime.of(random.nextInt(24), random.nextInt(60)));
+            }
+            if (random.nextBoolean()) {
+                filter = filter.withMaxStops(random.nextInt(4));
+            }
+            if (random.nextBoolean()) {
+                filter = filter.withCarriers(Set.copyOf(List.of(carriers[random.nextInt(carriers.length)],
+                        carriers[random.nextInt(carriers.length)], "XX")));
+            }
+
+            assertSameStatistics(TicketDataAnalyzer.calculateRouteStatistics(tickets, filter), index.query(filter));
+        }
+    }
+}
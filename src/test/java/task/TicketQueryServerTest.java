@@ -0,0 +1,167 @@
+package task;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static task.TestTickets.ticket;
+
+class TicketQueryServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TicketQueryServer server;
+
+    private HttpResponse<String> send(HttpRequest.Builder builder) throws IOException, InterruptedException {
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    private static String routeQuery(String origin, String destination) {
+        return "?origin=" + URLEncoder.encode(origin, StandardCharsets.UTF_8)
+                + "&destination=" + URLEncoder.encode(destination, StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void testQuery_cachesUntilReload() {
+        List<TicketData> tickets = new ArrayList<>(List.of(
+                ticket().flightMinutes(600).build(),
+                ticket().carrier("S7").flightMinutes(500).price(300).build(),
+                ticket().route("Уфа", "Ларнака").carrier("SU").flightMinutes(200).price(50).build()));
+        AtomicInteger loads = new AtomicInteger();
+        server = new TicketQueryServer(() -> {
+            loads.incrementAndGet();
+            return List.copyOf(tickets);
+        }, 2);
+
+        assertThrows(IllegalStateException.class, () -> server.query("Уфа", "Ларнака"));
+        assertEquals(3, server.reload());
+
+        RouteReport report = server.query("Владивосток", "Тель-Авив");
+        assertEquals(2, report.count());
+        assertEquals(200.0, report.averagePrice());
+        assertEquals(0.0, report.averageAndMedianPriceDifference());
+        assertEquals(500, report.minFlightTimes().get("S7").toMinutes());
+        assertSame(report, server.query("Владивосток", "Тель-Авив"));
+
+        tickets.add(ticket().flightMinutes(400).price(800).build());
+        assertSame(report, server.query("Владивосток", "Тель-Авив"));
+        assertEquals(4, server.reload());
+        RouteReport reloaded = server.query("Владивосток", "Тель-Авив");
+        assertNotSame(report, reloaded);
+        assertEquals(3, reloaded.count());
+        assertEquals(400, reloaded.minFlightTimes().get("TK").toMinutes());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testQuery_evictsLeastRecentlyUsed() {
+        TicketData ticket = ticket().route("Уфа", "Ларнака").carrier("SU").flightMinutes(200).price(50).build();
+        server = new TicketQueryServer(() -> List.of(ticket), 2);
+        server.reload();
+
+        RouteReport first = server.query("A", "B");
+        RouteReport second = server.query("C", "D");
+        assertSame(first, server.query("A", "B"));
+        server.query("E", "F");
+
+        assertSame(first, server.query("A", "B"));
+        assertNotSame(second, server.query("C", "D"));
+    }
+
+    @Test
+    void testReload_keepsDatasetOnFailure() {
+        TicketData ticket = ticket().route("Уфа", "Ларнака").carrier("SU").flightMinutes(200).price(50).build();
+        AtomicReference<List<TicketData>> source = new AtomicReference<>(List.of(ticket));
+        server = new TicketQueryServer(source::get, 8);
+        server.reload();
+        source.set(null);
+
+        assertEquals(-1, server.reload());
+        assertEquals(1, server.query("Уфа", "Ларнака").count());
+    }
+
+    @Test
+    void testHttpEndpoints() throws IOException, InterruptedException {
+        server = new TicketQueryServer(() -> List.of(
+                ticket().flightMinutes(600).build(),
+                ticket().carrier("S7").flightMinutes(500).price(400).build(),
+                ticket().carrier("S7").flightMinutes(450).price(250).build()), 8);
+        server.reload();
+        server.start(0);
+
+        HttpResponse<String> times = send(HttpRequest.newBuilder(uri("/min-flight-times" + routeQuery("Владивосток", "Тель-Авив"))));
+        assertEquals(200, times.statusCode());
+        JsonObject timesBody = JsonParser.parseString(times.body()).getAsJsonObject();
+        assertEquals(3, timesBody.get("tickets").getAsInt());
+        assertEquals(450, timesBody.getAsJsonObject("minFlightMinutes").get("S7").getAsLong());
+        assertEquals(600, timesBody.getAsJsonObject("minFlightMinutes").get("TK").getAsLong());
+
+        HttpResponse<String> difference = send(HttpRequest.newBuilder(uri("/price-difference" + routeQuery("Владивосток", "Тель-Авив"))));
+        assertEquals(200, difference.statusCode());
+        JsonObject differenceBody = JsonParser.parseString(difference.body()).getAsJsonObject();
+        assertEquals(250.0, differenceBody.get("averagePrice").getAsDouble());
+        assertEquals(0.0, differenceBody.get("difference").getAsDouble());
+
+        HttpResponse<String> empty = send(HttpRequest.newBuilder(uri("/price-difference" + routeQuery("Уфа", "Ларнака"))));
+        assertEquals(200, empty.statusCode());
+        assertTrue(JsonParser.parseString(empty.body()).getAsJsonObject().get("difference").isJsonNull());
+
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/min-flight-times?origin=A"))).statusCode());
+        assertEquals(405, send(HttpRequest.newBuilder(uri("/reload"))).statusCode());
+        HttpResponse<String> reload = send(HttpRequest.newBuilder(uri("/reload")).POST(HttpRequest.BodyPublishers.noBody()));
+        assertEquals(200, reload.statusCode());
+        assertEquals(3, JsonParser.parseString(reload.body()).getAsJsonObject().get("tickets").getAsInt());
+    }
+
+    @Test
+    void testHttpErrors() throws IOException, InterruptedException {
+        AtomicReference<List<TicketData>> source = new AtomicReference<>();
+        server = new TicketQueryServer(() -> {
+            List<TicketData> tickets = source.get();
+            if (tickets == null) {
+                throw new IllegalArgumentException("Broken loader");
+            }
+            return tickets;
+        }, 8);
+        server.start(0);
+
+        HttpResponse<String> notLoaded = send(HttpRequest.newBuilder(uri("/min-flight-times" + routeQuery("Уфа", "Ларнака"))));
+        assertEquals(503, notLoaded.statusCode());
+        assertEquals("No dataset loaded", JsonParser.parseString(notLoaded.body()).getAsJsonObject().get("error").getAsString());
+
+        HttpResponse<String> failed = send(HttpRequest.newBuilder(uri("/reload")).POST(HttpRequest.BodyPublishers.noBody()));
+        assertEquals(500, failed.statusCode());
+        assertEquals("Internal error", JsonParser.parseString(failed.body()).getAsJsonObject().get("error").getAsString());
+
+        source.set(List.of(ticket().route("Уфа", "Ларнака").carrier("SU").flightMinutes(200).price(50).build()));
+        assertEquals(200, send(HttpRequest.newBuilder(uri("/reload")).POST(HttpRequest.BodyPublishers.noBody())).statusCode());
+        assertEquals(200, send(HttpRequest.newBuilder(uri("/min-flight-times" + routeQuery("Уфа", "Ларнака")))).statusCode());
+    }
+}
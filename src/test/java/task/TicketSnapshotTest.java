@@ -0,0 +1,111 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketSnapshotTest {
+    private static final String[] ORIGINS = {"Владивосток", "Ларнака", "Уфа"};
+    private static final String[] DESTINATIONS = {"Тель-Авив", "Москва"};
+
+    @TempDir
+    Path tempDir;
+
+    private static List<TicketData> randomTickets(int count) {
+        Random random = new Random(23);
+        List<TicketData> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDate date = LocalDate.of(2018, 1, 1).plusDays(random.nextInt(365));
+            tickets.add(new TicketData("AAA", ORIGINS[random.nextInt(ORIGINS.length)],
+                    "BBB", DESTINATIONS[random.nextInt(DESTINATIONS.length)],
+                    date, LocalTime.of(random.nextInt(24), random.nextInt(60)),
+                    date.plusDays(1), LocalTime.of(random.nextInt(24), random.nextInt(60)),
+                    "C" + random.nextInt(5), random.nextInt(3), random.nextDouble() * 30000));
+        }
+        return tickets;
+    }
+
+    @Test
+    void testRoundTripGroupsRoutes() throws IOException {
+        List<TicketData> tickets = randomTickets(2_000);
+        Path path = tempDir.resolve("tickets.snapshot");
+
+        TicketSnapshot.write(TicketStore.of(tickets), path.toString());
+        TicketStore store = TicketSnapshot.read(path.toString());
+
+        assertNotNull(store);
+        assertTrue(TicketSnapshot.isSnapshot(path.toString()));
+        assertEquals(tickets.size(), store.size());
+        Map<RouteKey, List<TicketData>> routes = new LinkedHashMap<>();
+        for (TicketData ticket : tickets) {
+            routes.computeIfAbsent(RouteKey.of(ticket), route -> new ArrayList<>()).add(ticket);
+        }
+        List<TicketData> expected = routes.values().stream().flatMap(List::stream).toList();
+        for (int i = 0; i < store.size(); i++) {
+            assertEquals(expected.get(i), store.get(i));
+        }
+    }
+
+    @Test
+    void testRouteIndexQueriesMatchList() throws IOException {
+        List<TicketData> tickets = randomTickets(3_000);
+        Path path = tempDir.resolve("tickets.snapshot");
+        TicketSnapshot.write(TicketStore.of(tickets), path.toString());
+        TicketStore store = TicketSnapshot.read(path.toString());
+
+        for (String origin : ORIGINS) {
+            for (String destination : DESTINATIONS) {
+                assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(tickets, origin, destination),
+                        TicketDataAnalyzer.calculateMinFlightsTimes(store, origin, destination));
+                assertEquals(TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, origin, destination),
+                        TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(store, origin, destination));
+            }
+        }
+        assertEquals(Double.NaN, TicketDataAnalyzer.calculateAveragePrice(store, "Москва", "Уфа"));
+    }
+
+    @Test
+    void testAppendAfterLoad() throws IOException {
+        List<TicketData> tickets = randomTickets(100);
+        Path path = tempDir.resolve("tickets.snapshot");
+        TicketSnapshot.write(TicketStore.of(tickets), path.toString());
+        TicketStore store = TicketSnapshot.read(path.toString());
+        List<TicketData> extra = randomTickets(10);
+
+        extra.forEach(store);
+        List<TicketData> all = new ArrayList<>(tickets);
+        all.addAll(extra);
+
+        assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(all, ORIGINS[0], DESTINATIONS[0]),
+                TicketDataAnalyzer.calculateMinFlightsTimes(store, ORIGINS[0], DESTINATIONS[0]));
+    }
+
+    @Test
+    void testEmptyAndInvalidFiles() throws IOException {
+        Path empty = tempDir.resolve("empty.snapshot");
+        TicketSnapshot.write(new TicketStore(), empty.toString());
+        Path json = tempDir.resolve("tickets.json");
+        Files.writeString(json, "{\"tickets\": []}");
+
+        assertEquals(0, TicketSnapshot.read(empty.toString()).size());
+        assertFalse(TicketSnapshot.isSnapshot(json.toString()));
+        assertNull(TicketSnapshot.read(json.toString()));
+        assertFalse(TicketSnapshot.isSnapshot("non_existent_file.snapshot"));
+    }
+}
@@ -0,0 +1,77 @@
+package task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketStoreTest {
+    private static final String[] CITIES = {"Владивосток", "Тель-Авив", "Ларнака", "Уфа"};
+    private static final String[] CARRIERS = {"S7", "TK", "SU", "BA"};
+
+    private static List<TicketData> randomTickets(int count, long seed) {
+        Random random = new Random(seed);
+        List<TicketData> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDate departureDate = LocalDate.of(2018, 5, 1).plusDays(random.nextInt(30));
+            tickets.add(new TicketData("AAA", CITIES[random.nextInt(2)], "BBB", CITIES[2 + random.nextInt(2)],
+                    departureDate, LocalTime.of(random.nextInt(24), random.nextInt(60)),
+                    departureDate.plusDays(random.nextInt(2)), LocalTime.of(random.nextInt(24), random.nextInt(60)),
+                    CARRIERS[random.nextInt(CARRIERS.length)], random.nextInt(3), 1000 + random.nextInt(20000)));
+        }
+        return tickets;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        List<TicketData> tickets = TicketJsonReader.readTickets("tickets.json");
+        assertNotNull(tickets);
+
+        TicketStore store = TicketStore.of(tickets);
+
+        assertEquals(tickets.size(), store.size());
+        for (int i = 0; i < tickets.size(); i++) {
+            assertEquals(tickets.get(i), store.get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(tickets.size()));
+    }
+
+    @Test
+    public void testAnalyzerOverloadsMatchList() {
+        List<TicketData> tickets = randomTickets(5_000, 11);
+        TicketStore store = TicketStore.of(tickets);
+
+        for (int o = 0; o < 2; o++) {
+            for (int d = 2; d < 4; d++) {
+                String origin = CITIES[o];
+                String destination = CITIES[d];
+                assertEquals(TicketDataAnalyzer.calculateMinFlightsTimes(tickets, origin, destination),
+                        TicketDataAnalyzer.calculateMinFlightsTimes(store, origin, destination));
+                assertEquals(TicketDataAnalyzer.calculateAveragePrice(tickets, origin, destination),
+                        TicketDataAnalyzer.calculateAveragePrice(store, origin, destination));
+                assertEquals(TicketDataAnalyzer.calculateMedianPrice(tickets, origin, destination),
+                        TicketDataAnalyzer.calculateMedianPrice(store, origin, destination));
+                assertEquals(TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(tickets, origin, destination),
+                        TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(store, origin, destination));
+            }
+        }
+    }
+
+    @Test
+    public void testUnknownRoute() {
+        TicketStore store = TicketStore.of(randomTickets(10, 5));
+
+        assertTrue(TicketDataAnalyzer.calculateMinFlightsTimes(store, "Wrong1", "Wrong2").isEmpty());
+        assertEquals(Double.NaN, TicketDataAnalyzer.calculateAveragePrice(store, "Wrong1", "Wrong2"));
+        assertEquals(Double.NaN, TicketDataAnalyzer.calculateMedianPrice(store, "Wrong1", "Wrong2"));
+        assertEquals(Double.NaN, TicketDataAnalyzer.calculateAverageAndMedianPriceDifference(store, "Wrong1", "Wrong2"));
+    }
+}